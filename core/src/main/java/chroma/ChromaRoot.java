@@ -1,17 +1,25 @@
 package chroma;
 
 import chroma.controller.GameplayController;
+import chroma.controller.InputController;
+import chroma.controller.InputRecorder;
+import chroma.controller.InputReplay;
 import chroma.controller.LevelSelector;
 import chroma.controller.LoadingMode;
 import chroma.controller.MenuMode;
+import chroma.controller.ProgressStore;
+import chroma.model.AnimationRegistry;
 import chroma.model.Level;
+import chroma.model.TileTable;
 import com.badlogic.gdx.*;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
 import edu.cornell.gdiac.util.*;
 import edu.cornell.gdiac.assets.*;
 import edu.cornell.gdiac.graphics.*;
 import java.awt.Menu;
+import java.io.File;
 
 /**
  * {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms.
@@ -40,6 +48,15 @@ public class ChromaRoot extends Game implements ScreenListener {
     /** Array of gameplay controllers (or could be just one) */
     private GameplayController[] controllers;
 
+    /** Where to record the next level played, or null */
+    private File recordFile;
+    /** The recording to play back instead of the player's input, or null */
+    private InputReplay replay;
+    // Frame costs of the replay
+    private int replayFrames;
+    private long replayNanos;
+    private long replayWorstNanos;
+
 //    private AssetManager assets;
     /**
      * Creates a new game from the configuration settings.
@@ -49,6 +66,24 @@ public class ChromaRoot extends Game implements ScreenListener {
      */
     public ChromaRoot() { }
 
+    /**
+     * Records the player's input in the first level played, to be played
+     * back with {@link #setReplay(InputReplay)}. The recording is saved when
+     * the level is left or the game closes.
+     */
+    public void setRecordFile(File file) {
+        recordFile = file;
+    }
+
+    /**
+     * Plays a recording instead of the player's input. The game skips the
+     * menu, plays the recording's level with its input and frame times, logs
+     * what the frames cost and quits when the recording runs out.
+     */
+    public void setReplay(InputReplay replay) {
+        this.replay = replay;
+    }
+
     /**
      * Called when the Application is first created.
      *
@@ -58,9 +93,8 @@ public class ChromaRoot extends Game implements ScreenListener {
     @Override
     public void create() {
         batch = new SpriteBatch();
-        Preferences prefs = Gdx.app.getPreferences("GameProgress");
-        prefs.clear();
-        prefs.flush();
+        // Every launch starts with fresh progress; the file is rewritten in the background
+        ProgressStore.getInstance().clear();
         loading = new LoadingMode("assets.json", batch, 1);
         loading.setScreenListener(this);
         setScreen(loading);
@@ -72,6 +106,7 @@ public class ChromaRoot extends Game implements ScreenListener {
     public void dispose() {
         // Properly dispose the current screen
         setScreen(null);
+        InputController.getInstance().stopRecording();
 
         // Dispose the loading screen
         if (loading != null) {
@@ -103,6 +138,9 @@ public class ChromaRoot extends Game implements ScreenListener {
             directory.dispose();
             directory = null;
         }
+        AnimationRegistry.clear();
+        ProgressStore.getInstance().close();
+        TileTable.clear();
 
         super.dispose();
     }
@@ -112,23 +150,66 @@ public class ChromaRoot extends Game implements ScreenListener {
      *
      * This can happen at any point during a non-paused state but will never
      * happen before a call to create().
+     *
+     * Only the active screen is resized. Every other screen picks up the
+     * current size when it is shown, as setScreen resizes it then.
      */
     public void resize(int width, int height) {
-        // Pass size changes down to the loading screen, if active
-        if (loading != null) {
-            loading.resize(width, height);
-        }
+        super.resize(width, height);
+    }
 
-        if (selecting != null) {
-            selecting.resize(width, height);
+    /**
+     * Renders the active screen, timing the frame when a recording is being
+     * played back.
+     */
+    @Override
+    public void render() {
+        // Loading is not part of the workload
+        if (replay == null || !(getScreen() instanceof GameplayController)) {
+            super.render();
+            return;
         }
+        long start = System.nanoTime();
+        super.render();
+        long cost = System.nanoTime() - start;
+        replayFrames++;
+        replayNanos += cost;
+        replayWorstNanos = Math.max(replayWorstNanos, cost);
+        if (replay.isFinished()) {
+            finishReplay();
+        }
+    }
 
-        // Pass size changes to each gameplay controller
-        if (controllers != null) {
-            for (int ii = 0; ii < controllers.length; ii++) {
-                controllers[ii].resize(width, height);
-            }
+    /** Logs what the replay's frames cost and quits */
+    private void finishReplay() {
+        Gdx.app.log("Replay", String.format("level %d: %d frames, mean %.3f ms, worst %.3f ms",
+            replay.getLevel(), replayFrames,
+            replayFrames == 0 ? 0 : replayNanos / 1e6 / replayFrames, replayWorstNanos / 1e6));
+        InputController.getInstance().startReplay(null);
+        replay = null;
+        Gdx.app.exit();
+    }
+
+    /**
+     * Starts a level, recording or playing back its input if asked to.
+     *
+     * @param level the level, starting from 1
+     */
+    private void startLevel(int level) {
+        current = level;
+        InputController input = InputController.getInstance();
+        if (replay != null) {
+            controllers[current-1].setSeed(replay.getSeed());
+            input.startReplay(replay);
+        } else if (recordFile != null) {
+            long seed = MathUtils.random.nextLong();
+            controllers[current-1].setSeed(seed);
+            input.startRecording(new InputRecorder(recordFile, level, seed,
+                Gdx.graphics.getWidth(), Gdx.graphics.getHeight()));
+            recordFile = null;
         }
+        controllers[current-1].reset();
+        setScreen(controllers[current-1]);
     }
 
     /**
@@ -148,6 +229,10 @@ public class ChromaRoot extends Game implements ScreenListener {
             controllers = loading.getControllers();
             loading.dispose();
             loading = null;
+            if (replay != null) {
+                startLevel(replay.getLevel());
+                return;
+            }
             selecting = new MenuMode("assets.json", batch);
             selecting.setScreenListener(this);
             setScreen(selecting);
@@ -156,35 +241,43 @@ public class ChromaRoot extends Game implements ScreenListener {
             selecting.dispose();
             selecting = null;
 
-            current = exitCode;
-            controllers[current-1].reset();
-            setScreen(controllers[current-1]);
+            startLevel(exitCode);
 
             // Handling transitions inside gameplay
+        } else if (replay != null) {
+            // A recording covers one level, not the menus
+            finishReplay();
         } else if (exitCode == GameplayController.EXIT_NEXT) {
+            InputController.getInstance().stopRecording();
 //            levelSelector.nextLevel();
 //            controllers[current].reset();
+            controllers[current - 1].suspend();
             current = Math.min(current + 1, controllers.length);
             controllers[current - 1].reset();
             setScreen(controllers[current-1]);
 
         } else if (exitCode == GameplayController.EXIT_PREV) {
+            InputController.getInstance().stopRecording();
 //            levelSelector.prevLevel();
 //            controllers[current].reset();
+            controllers[current - 1].suspend();
             current = Math.max(current - 1, 1);
             controllers[current-1].reset();
             setScreen(controllers[current-1]);
 
         } else if (exitCode == GameplayController.EXIT_QUIT) {
+            InputController.getInstance().stopRecording();
             // Quit the main application
-            controllers[current].reset();
+            controllers[current - 1].suspend();
             selecting = new MenuMode("assets.json", batch);
             selecting.setScreenListener(this);
             setScreen(selecting);
 
         } else if (exitCode == GameplayController.EXIT_MAP) {
+            InputController.getInstance().stopRecording();
             //Transition from gameplay to menu
 //            controllers = null;
+            controllers[current - 1].suspend();
             selecting = new MenuMode("assets.json", batch);
             selecting.setScreenListener(this);
             setScreen(selecting);
@@ -4,29 +4,30 @@ import chroma.model.*;
 import chroma.model.Enemy.Type;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
 import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
-import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.GridPoint2;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.RayCastCallback;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.ai.pfa.GraphPath;
 import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
-import com.badlogic.gdx.utils.ObjectMap;
 import edu.cornell.gdiac.graphics.SpriteBatch;
 import edu.cornell.gdiac.physics2.ObstacleSprite;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.badlogic.gdx.math.Vector2.dst;
 import static com.badlogic.gdx.math.Vector2.dst2;
@@ -36,12 +37,23 @@ public class AIController {
         WANDER, PATROL, ALERT, CHASE
     }
 
+    /** How much work a guard gets each tick, from near the player to far away */
+    public enum Detail {
+        /** Every tick: perception, state logic, pathfinding and steering */
+        FULL,
+        /** State logic a few times a second, fewer path plans, same steering */
+        REDUCED,
+        /** Patrol legs replayed from cached paths, without forces or planning */
+        RAILS
+    }
+
     private GameplayController gameplay;
     private PhysicsController physics;
     private Enemy enemy;
     private Type type;
     private Chameleon player;
-    private List<Collision> collisions; // list of walls for pathfindinga
+    /** Wall tiles, for grid line-of-sight tests */
+    private SolidGrid solids;
     private List<Goal> goals;
     private List<GoalCollision> goalCollisions;
     private State state;
@@ -89,18 +101,53 @@ public class AIController {
 
     private boolean playerDetected = false;
 
+    /** The level's nav graph, shared with the other guards */
     private NavGraph graph;
     private PathFinder pathFinder;
-    private boolean[][] walkableGrid;
-    private NavNode[][] nodeGrid;
-    private int gridWidth;
-    private int gridHeight;
-    private GraphPath<NavNode> nodePath;
+    /** Jump Point Search over the graph's grid, or null to search the graph with A* */
+    private JumpPointPlanner jumpPlanner;
+    private GraphPath<NavGraph.Node> nodePath;
     private Array<Vector2> path;
-    private Vector2 previousEnd;
     private float pathRecalcTimer = 0;
     private final float PATH_RECALC_INTERVAL = 0.3f;
 
+    // PATH FOLLOWING:
+    /** A waypoint counts as reached within this distance (in tiles) */
+    private static final float ARRIVE_DISTANCE = 0.5f;
+    /** The route is replanned once its target moves farther than this (in tiles) */
+    private static final float REPLAN_DISTANCE = 1.5f;
+    private PathSmoother smoother;
+    /** Smoothed waypoints being followed, the one being approached, and what they lead to */
+    private final Array<Vector2> route = new Array<>();
+    private int routeIndex;
+    private final Vector2 routeGoal = new Vector2();
+
+    // WALL CLEARANCE:
+    /** Guards lean away from walls closer than this (in tiles) */
+    private static final float WALL_CLEARANCE = 1.5f;
+    /** How hard a guard right next to a wall leans away, relative to its heading */
+    private static final float WALL_PUSH = 0.75f;
+    private final Vector2 steer = new Vector2();
+    private final Vector2 awayFromWall = new Vector2();
+
+    // LEVEL OF DETAIL:
+    /** Guards closer than this (in tiles) always run at full detail; above every sight range */
+    private static final float NEAR_DISTANCE = 10f;
+    /** Patrolling guards farther than this (in tiles) ride their patrol rails */
+    private static final float RAILS_DISTANCE = 24f;
+    /** Seconds between state updates at reduced detail */
+    private static final float REDUCED_THINK_INTERVAL = 0.25f;
+    /** Seconds between path plans at reduced detail */
+    private static final float REDUCED_PATH_INTERVAL = 1f;
+    private Detail detail = Detail.FULL;
+    private float thinkTimer = 0;
+    /** Cached path of each patrol leg, indexed by the leg's end point */
+    private Array<Vector2>[] patrolRails;
+    /** The path being ridden, and the index of the point being approached */
+    private Array<Vector2> rail;
+    private int railIndex;
+    private final Vector2 railVelocity = new Vector2();
+
     private float scale;
 
     // BLUE RED ANIMATION:
@@ -112,7 +159,8 @@ public class AIController {
     // Camera Lights
     private Texture lightTexture;
 
-    public AIController(Enemy enemy, GameplayController gameplayController, PhysicsController physicsController, Level level, Texture lightTexture) {
+    public AIController(Enemy enemy, GameplayController gameplayController, PhysicsController physicsController,
+                        Level level, NavGraph navGraph, PathSearchQueue pathQueue, Texture lightTexture) {
         this.gameplay = gameplayController;
         this.physics = physicsController;
         this.enemy = enemy;
@@ -120,7 +168,7 @@ public class AIController {
         this.patrolPath = enemy.getPatrolPath();
         this.type = enemy.getType();
         this.player = level.getAvatar();
-        this.collisions = level.getCollision();
+        this.solids = level.getSolidGrid();
         this.goals = new ArrayList<>();
         this.goals.addAll(physics.getGoalList());
         this.goalCollisions = new ArrayList<>();
@@ -133,9 +181,6 @@ public class AIController {
         state = patrol ? State.PATROL : State.WANDER;
         pickNewWanderTarget();
 
-        float worldWidth = gameplay.getWorldWidth();
-        float worldHeight = gameplay.getWorldHeight();
-
         // Scaling for nodes
 //        OrthographicCamera camera = gameplay.getCamera();
 //        float screenHeight = camera.viewportHeight;
@@ -146,13 +191,15 @@ public class AIController {
 
         this.lightTexture = lightTexture;
 
-        // Build navigation graph
-        graph = new NavGraph();
-        buildGraph(worldWidth, worldHeight);
-        pathFinder = new PathFinder(graph);  // Now create the pathfinder
+        // Plan over the level's navigation graph
+        graph = navGraph;
+        if (level.usesJumpPoints()) {
+            jumpPlanner = new JumpPointPlanner(graph.getJumpPointCells(), graph.getWidth(), graph.getHeight());
+        }
+        pathFinder = new PathFinder(graph, pathQueue);  // Now create the pathfinder
+        smoother = new PathSmoother(solids, graph, Math.max(enemy.getWidth(), enemy.getHeight()) / 2);
         nodePath = new DefaultGraphPath<>();
         path = new Array<>();
-        previousEnd = new Vector2();
     }
 
     private void pickNewWanderTarget() {
@@ -160,306 +207,403 @@ public class AIController {
         float maxX = gameplay.getWorldWidth() - margin;
         float minY = margin;
         float maxY = gameplay.getWorldHeight() - margin;
-        float x = MathUtils.random(minX, maxX);
-        float y = MathUtils.random(minY, maxY);
+        RandomXS128 random = gameplay.getRandom();
+        float x = minX + random.nextFloat() * (maxX - minX);
+        float y = minY + random.nextFloat() * (maxY - minY);
         target = new Vector2(x, y);
     }
 
-    private void buildGraph(float worldWidth, float worldHeight) {
-        gridWidth = (int) worldWidth + 1;
-        gridHeight = (int) worldHeight + 1;
-
-        walkableGrid = new boolean[gridWidth][gridHeight];
-        nodeGrid = new NavNode[gridWidth][gridHeight];
-
-        // First pass: determine walkability and create nodes
-        for (int x = 0; x < gridWidth; x++) {
-            for (int y = 0; y < gridHeight; y++) {
-                Vector2 pos = new Vector2(x, y);
-                if (!isBlocked(pos)) {
-                    walkableGrid[x][y] = true;
-                    NavNode node = new NavNode(x, y);
-                    nodeGrid[x][y] = node;
-                    graph.addNode(node);
-                }
-            }
-        }
+    /**
+     * Cost of the shortest 8-way move between two nodes. It never
+     * overestimates, so A* returns shortest paths (as JPS does).
+     */
+    public class OctileHeuristic implements Heuristic<NavGraph.Node> {
+        private final float diagonalExtra = (float) Math.sqrt(2) - 1;
 
-        // Second pass: connect adjacent nodes
-        for (int x = 0; x < gridWidth; x++) {
-            for (int y = 0; y < gridHeight; y++) {
-                NavNode node = nodeGrid[x][y];
-                if (node != null) {
-                    // Connect 8 directions (optional: limit to 4 if preferred)
-                    for (int dx = -1; dx <= 1; dx++) {
-                        for (int dy = -1; dy <= 1; dy++) {
-                            if (dx == 0 && dy == 0) continue;
-                            int nx = x + dx;
-                            int ny = y + dy;
-
-                            if (inBounds(nx, ny)) {
-                                NavNode neighbor = nodeGrid[nx][ny];
-                                if (neighbor != null && !isLineBlocked(node.position, neighbor.position)) {
-                                    node.addConnection(new NavConnection(node, neighbor));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        @Override
+        public float estimate(NavGraph.Node node, NavGraph.Node endNode) {
+            float dx = Math.abs(graph.getX(node.id) - graph.getX(endNode.id));
+            float dy = Math.abs(graph.getY(node.id) - graph.getY(endNode.id));
+            return Math.max(dx, dy) + diagonalExtra * Math.min(dx, dy);
         }
     }
 
-    private boolean inBounds(int x, int y) {
-        return x >= 0 && y >= 0 && x < gridWidth && y < gridHeight;
-    }
-
-    public boolean isWalkable(int x, int y) {
-        return inBounds(x, y) && walkableGrid[x][y];
-    }
-
-    public NavNode getNodeAt(int x, int y) {
-        return inBounds(x, y) ? nodeGrid[x][y] : null;
-    }
-
-    // Checks if a straight line from start to end is blocked by any wall.
-    private boolean isLineBlocked(Vector2 start, Vector2 end) {
-        if (start.dst(end) > 0.1) {
-            Fixture hitFixture = physics.raycast(start, end);
-
-            // If nothing is hit, return false (line is not blocked)
-            if (hitFixture == null) {
-                return false;
-            }
+    /**
+     * Plans paths over the nav graph, reusing earlier work where it can.
+     * <p>
+     * Paths are cached by their start and end nodes; the graph never changes
+     * after it is built, so a cached path stays valid. When only the goal has
+     * moved a little since the last plan (a chased player), the last path is
+     * repaired instead: it is cut at the guard's node and extended from the
+     * old goal to the new one with a short search. A repair that comes out
+     * much longer than the direct distance falls back to a full search.
+     * <p>
+     * Full A* searches go through the level's {@link PathSearchQueue}, so
+     * they may take a few frames; until then {@link #findPath} returns null.
+     * When the result comes in, the guard has moved on a little: the path is
+     * joined at the guard's current node, and repaired if the goal moved.
+     * <p>
+     * The points of the returned path are reused by the next plan; copy them
+     * to keep them.
+     */
+    public class PathFinder {
+        /** Paths kept per guard */
+        private static final int CACHE_SIZE = 16;
+        /** How far (in tiles) the goal may move for the last path to be repaired */
+        private static final float REPAIR_RADIUS = 3f;
+        /** A repaired path may be this many times the direct distance, plus the radius */
+        private static final float REPAIR_SLACK = 1.5f;
+        /** How far (in tiles) the guard may be from a queued path's start to join it */
+        private static final float JOIN_DISTANCE = 1.5f;
 
-            Object hitObject = hitFixture.getBody().getUserData();
+        private final NavGraph graph;
+        private final IndexedAStarPathFinder<NavGraph.Node> pathFinder;
+        private final OctileHeuristic heuristic;
+        /** Cells of the last Jump Point Search */
+        private final IntArray cells = new IntArray();
+        private int lastEndNode = -1;
+        /** The nodes of the last path returned */
+        private IntArray lastNodes;
+        /** Points handed out in paths, reused from plan to plan */
+        private final Array<Vector2> points = new Array<>();
+        /** Paths by start and end node, least recently used first */
+        private final Map<Long, IntArray> cache =
+            new LinkedHashMap<Long, IntArray>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, IntArray> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+        /** The level's time-sliced searches, and this guard's request to them */
+        private final PathSearchQueue queue;
+        private final PathFinderRequest<NavGraph.Node> request = new PathFinderRequest<>();
+        private boolean queued;
 
-            // Ignore enemies during visibility/path checks
-            return !(hitObject instanceof Enemy || hitObject instanceof Chameleon);
-        } else {
-            return false;
-        }
-    }
-    private boolean isBlocked(Vector2 position) {
-        for (Collision wall : collisions) {
-            if (wall.contains(position)) {
-                return true;
-            }
+        public PathFinder(NavGraph graph, PathSearchQueue queue) {
+            this.graph = graph;
+            this.queue = queue;
+            this.pathFinder = new IndexedAStarPathFinder<>(graph);
+            this.heuristic = new OctileHeuristic();
+            request.heuristic = heuristic;
+            request.resultPath = new DefaultGraphPath<>();
         }
 
-
-        return false;
-    }
-
-    public class NavNode {
-        public final Vector2 position;
-        private final Array<Connection<NavNode>> connections = new Array<>();
-
-        public NavNode(float x, float y) {
-            this.position = new Vector2(x, y);
+        /** Returns true while a full search for this guard is queued */
+        public boolean isSearching() {
+            return queued;
         }
 
-        public void addConnection(Connection<NavNode> connection) {
-            connections.add(connection);
+        /**
+         * Plans a path, queueing a full search if one is needed.
+         *
+         * @return the path, or null while its search is still queued
+         */
+        public Array<Vector2> findPath(Vector2 start, Vector2 end) {
+            return findPath(start, end, false);
         }
 
-        public Array<Connection<NavNode>> getConnections() {
-            return connections;
+        /** Plans a path right away, searching in full if needed */
+        public Array<Vector2> findPathNow(Vector2 start, Vector2 end) {
+            return findPath(start, end, true);
         }
-    }
 
-    public class NavConnection implements Connection<NavNode> {
-        private final NavNode fromNode;
-        private final NavNode toNode;
-        private final float cost;
+        private Array<Vector2> findPath(Vector2 start, Vector2 end, boolean now) {
+            int startNode = graph.nearestNode(start.x, start.y);
+            int endNode = graph.nearestNode(end.x, end.y);
 
-        public NavConnection(NavNode from, NavNode to) {
-            this.fromNode = from;
-            this.toNode = to;
-            this.cost = from.position.dst(to.position); // Distance as cost
-        }
+            if (startNode < 0 || endNode < 0) {
+                path.clear();
+                return path;
+            }
 
-        @Override
-        public float getCost() {
-            return cost;
+            Long key = ((long) startNode << 32) | endNode;
+            IntArray nodes = cache.get(key);
+            if (nodes == null && !queued) {
+                // While a search is queued, collect() repairs its result once
+                // it is done; repairing here as well would search every tick
+                nodes = repair(startNode, endNode);
+            }
+            if (queued && !now) {
+                if (nodes != null) {
+                    // Planned without the queued search after all
+                    queue.cancel(request);
+                    queued = false;
+                } else {
+                    nodes = collect(startNode, endNode);
+                    if (nodes == null) {
+                        return null;
+                    }
+                }
+            }
+            if (nodes == null && jumpPlanner != null) {
+                nodes = new IntArray();
+                if (!searchJumpPoints(startNode, endNode, nodes)) {
+                    nodes = null;
+                }
+            }
+            if (nodes == null) {
+                if (queue != null && !now) {
+                    submit(startNode, endNode);
+                    return null;
+                }
+                nodes = new IntArray();
+                search(startNode, endNode, nodes);
+            }
+            cache.put(key, nodes);
+
+            lastEndNode = endNode;
+            lastNodes = nodes;
+            path.clear();
+            for (int ii = 0; ii < nodes.size; ii++) {
+                if (ii == points.size) {
+                    points.add(new Vector2());
+                }
+                int node = nodes.get(ii);
+                path.add(points.get(ii).set(graph.getX(node), graph.getY(node)));
+            }
+            return path;
         }
 
-        @Override
-        public NavNode getFromNode() {
-            return fromNode;
+        /**
+         * Runs a full search, leaving the nodes of the path in out.
+         *
+         * @return true if a path was found
+         */
+        private boolean search(int start, int end, IntArray out) {
+            if (jumpPlanner != null && searchJumpPoints(start, end, out)) {
+                return true;
+            }
+            nodePath.clear();
+            boolean success = pathFinder.searchNodePath(graph.getNode(start), graph.getNode(end), heuristic, nodePath);
+            if (success) {
+                for (NavGraph.Node node : nodePath) {
+                    out.add(node.id);
+                }
+            }
+            return success;
         }
 
-        @Override
-        public NavNode getToNode() {
-            return toNode;
+        private void submit(int start, int end) {
+            request.startNode = graph.getNode(start);
+            request.endNode = graph.getNode(end);
+            queue.submit(request);
+            queued = true;
         }
-    }
 
-    public class NavGraph implements IndexedGraph<NavNode> {
-        private final Array<NavNode> nodes = new Array<>();
-        private final ObjectMap<GridPoint2, Array<NavNode>> spatialMap = new ObjectMap<>();
-        private final float cellSize = scale; // or whatever spacing fits your level
+        /**
+         * Takes the result of the queued search once it is done, fitted to
+         * where the guard and the goal are now. Returns null while it is
+         * still running, or if the result no longer fits and a new search
+         * has been queued instead.
+         */
+        private IntArray collect(int start, int end) {
+            int requestEnd = request.endNode.id;
+            if (request.status != PathFinderRequest.SEARCH_DONE) {
+                // Still running: wait unless the goal has moved too far for a repair
+                if (distance(requestEnd, end) > REPAIR_RADIUS) {
+                    queue.cancel(request);
+                    submit(start, end);
+                }
+                return null;
+            }
+            queued = false;
+            if (!request.pathFound) {
+                if (requestEnd != end) {
+                    submit(start, end);
+                    return null;
+                }
+                return new IntArray();
+            }
 
-        @Override
-        public int getIndex(NavNode node) {
-            return nodes.indexOf(node, true);
+            IntArray nodes = new IntArray(request.resultPath.getCount() + 1);
+            for (NavGraph.Node node : request.resultPath) {
+                nodes.add(node.id);
+            }
+            // Join the path where the guard is now
+            int from = nodes.indexOf(start);
+            if (from > 0) {
+                nodes.removeRange(0, from - 1);
+            } else if (from < 0) {
+                if (distance(start, nodes.first()) > JOIN_DISTANCE) {
+                    submit(start, end);
+                    return null;
+                }
+                nodes.insert(0, start);
+            }
+            if (requestEnd == end) {
+                return nodes;
+            }
+            // The goal moved while searching: repair the path towards it
+            lastEndNode = requestEnd;
+            lastNodes = nodes;
+            IntArray repaired = repair(start, end);
+            if (repaired == null) {
+                submit(start, end);
+            }
+            return repaired;
         }
 
-        @Override
-        public int getNodeCount() {
-            return nodes.size;
+        /**
+         * Runs Jump Point Search between two nodes. It fails for nodes JPS
+         * leaves out; the caller then searches the graph with A*.
+         */
+        private boolean searchJumpPoints(int start, int end, IntArray out) {
+            int sx = (int) graph.getX(start);
+            int sy = (int) graph.getY(start);
+            int ex = (int) graph.getX(end);
+            int ey = (int) graph.getY(end);
+            if (!jumpPlanner.search(sx, sy, ex, ey, cells)) {
+                return false;
+            }
+            for (int ii = 0; ii < cells.size; ii++) {
+                int cell = cells.get(ii);
+                out.add(graph.nodeAt(cell % graph.getWidth(), cell / graph.getWidth()));
+            }
+            return true;
         }
 
-        @Override
-        public Array<Connection<NavNode>> getConnections(NavNode fromNode) {
-            return fromNode.getConnections();
-        }
+        /**
+         * Adapts the last path to a goal that moved a little, or returns null
+         * if it cannot be reused.
+         */
+        private IntArray repair(int start, int end) {
+            if (lastNodes == null || lastNodes.size < 2
+                || distance(lastEndNode, end) > REPAIR_RADIUS) {
+                return null;
+            }
+            // Guards walk smoothed routes, so they are seldom on a node of the
+            // old path; join it from nearby, the way collect() does
+            int from = lastNodes.indexOf(start);
+            boolean joined = from < 0;
+            if (joined) {
+                from = nearestOnPath(lastNodes, start);
+                if (distance(start, lastNodes.get(from)) > JOIN_DISTANCE) {
+                    return null;
+                }
+            }
 
-        public void addNode(NavNode node) {
-            nodes.add(node);
-            GridPoint2 cell = new GridPoint2((int)(node.position.x), (int)(node.position.y));
+            IntArray repaired = new IntArray(lastNodes.size - from + 5);
+            if (joined) {
+                repaired.add(start);
+            }
+            for (int ii = from; ii < lastNodes.size; ii++) {
+                repaired.add(lastNodes.get(ii));
+            }
+            int reached = repaired.indexOf(end);
+            if (reached >= 0) {
+                repaired.truncate(reached + 1);
+            } else {
+                IntArray tail = new IntArray();
+                if (!search(lastEndNode, end, tail)) {
+                    return null;
+                }
+                for (int ii = 1; ii < tail.size; ii++) {
+                    int node = tail.get(ii);
+                    // Walking back over the old path: cut the loop instead
+                    int loop = repaired.indexOf(node);
+                    if (loop >= 0) {
+                        repaired.truncate(loop + 1);
+                    } else {
+                        repaired.add(node);
+                    }
+                }
+            }
 
-            Array<NavNode> cellNodes = spatialMap.get(cell);
-            if (cellNodes == null) {
-                cellNodes = new Array<>();
-                spatialMap.put(cell, cellNodes);
+            float length = 0;
+            for (int ii = 1; ii < repaired.size; ii++) {
+                length += distance(repaired.get(ii - 1), repaired.get(ii));
             }
-            cellNodes.add(node);
+            if (length > REPAIR_SLACK * distance(start, end) + REPAIR_RADIUS) {
+                return null;
+            }
+            return repaired;
         }
-//
-//        private GridPoint2 toCell(Vector2 pos) {
-//            return new GridPoint2((int)(pos.x / cellSize), (int)(pos.y / cellSize));
-//        }
 
-        public NavNode getNearestWalkableNode(Vector2 point) {
-            int baseX = (int) point.x;
-            int baseY = (int) point.y;
-            GridPoint2 neighbor = new GridPoint2();
-
-            NavNode closest = null;
-            float minDist = Float.MAX_VALUE;
-
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dy = -1; dy <= 1; dy++) {
-                    neighbor.set(baseX + dx, baseY + dy);
-                    Array<NavNode> candidates = spatialMap.get(neighbor);
-                    if (candidates == null) continue;
-
-                    for (NavNode node : candidates) {
-                        float dist = node.position.dst2(point);
-                        if (dist < minDist) {
-                            minDist = dist;
-                            closest = node;
-                            if (dist == 0) return node; // Early exit
-                        }
-                    }
+        /** Returns the index of the node of a path closest to the given node */
+        private int nearestOnPath(IntArray nodes, int node) {
+            int best = 0;
+            float bestDistance = Float.MAX_VALUE;
+            for (int ii = 0; ii < nodes.size; ii++) {
+                float d = distance(node, nodes.get(ii));
+                if (d < bestDistance) {
+                    best = ii;
+                    bestDistance = d;
                 }
             }
-
-            return closest != null ? closest : new NavNode(point.x, point.y);
+            return best;
         }
-    }
 
-    public class EuclideanHeuristic implements Heuristic<NavNode> {
-        @Override
-        public float estimate(NavNode node, NavNode endNode) {
-            return node.position.dst2(endNode.position);
+        private float distance(int a, int b) {
+            return Vector2.dst(graph.getX(a), graph.getY(a), graph.getX(b), graph.getY(b));
         }
     }
 
-    public class PathFinder {
-        private final NavGraph graph;
-        private final IndexedAStarPathFinder<NavNode> pathFinder;
-        private final EuclideanHeuristic heuristic;
-        private NavNode lastStartNode;
-        private NavNode lastEndNode;
-
-        public PathFinder(NavGraph graph) {
-            this.graph = graph;
-            this.pathFinder = new IndexedAStarPathFinder<>(graph);
-            this.heuristic = new EuclideanHeuristic();
-            lastStartNode = null;
-            lastEndNode = null;
+    /**
+     * Follows the smoothed route to a goal and returns the waypoint to steer
+     * for, or null once the route is used up. A new route is planned only
+     * when there is none, the goal has moved more than REPLAN_DISTANCE from
+     * where the route leads, or the guard has lost sight of its waypoint.
+     * Apart from a missing route, those checks run at the path interval.
+     */
+    private Vector2 followPath(float delta, Vector2 enemyPos, Vector2 goal) {
+        while (routeIndex < route.size && enemyPos.dst2(route.get(routeIndex)) < ARRIVE_DISTANCE * ARRIVE_DISTANCE) {
+            routeIndex++;
         }
-
-        public Array<Vector2> findPath(Vector2 start, Vector2 end) {
-            lastStartNode = graph.getNearestWalkableNode(start);
-            lastEndNode = graph.getNearestWalkableNode(end);
-
-            if (lastStartNode == null || lastEndNode == null) {
-                return path;
-            }
-
-            nodePath.clear();
-
-            boolean success = pathFinder.searchNodePath(lastStartNode, lastEndNode, heuristic, nodePath);
-
-            path.clear();
-
-            if (success) {
-                for (NavNode node : nodePath) {
-                    path.add(node.position);
-                }
+        pathRecalcTimer += delta;
+        if (routeIndex >= route.size || pathRecalcTimer >= pathInterval()) {
+            pathRecalcTimer = 0;
+            if (needsNewRoute(enemyPos, goal)) {
+                planRoute(enemyPos, goal);
             }
-            return path;
         }
+        return routeIndex < route.size ? route.get(routeIndex) : null;
     }
 
-    private Vector2 getNextPathPoint(Vector2 start, Vector2 end) {
-        if (previousEnd == null || !previousEnd.equals(end)) {
-            path = pathFinder.findPath(start, end);
+    private boolean needsNewRoute(Vector2 enemyPos, Vector2 goal) {
+        if (routeIndex >= route.size || routeGoal.dst2(goal) > REPLAN_DISTANCE * REPLAN_DISTANCE) {
+            return true;
         }
+        // Pushed off the route
+        Vector2 next = route.get(routeIndex);
+        return solids.isLineBlocked(enemyPos.x, enemyPos.y, next.x, next.y)
+            || !graph.isPlainLine(enemyPos.x, enemyPos.y, next.x, next.y);
+    }
 
-        if (path.size > 1) {
-            lastPath = path; // Store for debugging
-            lastGoal = end;
-
-//            lastVisible = getFarthestVisiblePoint(start, path);
-
-            return path.get(1);
+    private void planRoute(Vector2 enemyPos, Vector2 goal) {
+        Array<Vector2> found = pathFinder.findPath(enemyPos, goal);
+        if (found == null) {
+            // Still searching: keep following the old route
+            return;
         }
-        return null;
-    }
+        path = found;
+        lastPath = path; // Store for debugging
+        lastGoal = goal;
 
-//    private Vector2 getFarthestVisiblePoint(Vector2 start, Array<Vector2> path) {
-//        Vector2 lastVisible = start;
-//        float bodyRadius = enemy.getHeight() / 2;
-//
-//        Vector2 currentStart = start.cpy();
-//        for (Vector2 point : path) {
-//            if (isPathClearForBody(currentStart, point, bodyRadius)) {
-//                lastVisible = point;
-//                currentStart = point.cpy();
-//            } else {
-//                break;  // First blocked point — stop here.
-//            }
-//        }
-//        return lastVisible.equals(start) ? null : lastVisible;
-//    }
+        smoother.smooth(path, route);
+        routeIndex = 0;
+        routeGoal.set(goal);
+    }
 
-//    private boolean isPathClearForBody(Vector2 start, Vector2 end, float radius) {
-//        Vector2 direction = new Vector2(end).sub(start).nor();
-//        Vector2 perpendicular = new Vector2(-direction.y, direction.x);
-//        Vector2 offset = perpendicular.scl(radius * scale);
-//
-//        // Perform 3 raycasts: center, left offset, right offset
-//        boolean centerClear = !isLineBlocked(start, end);
-//        boolean leftClear = !isLineBlocked(start.cpy().add(offset), end.cpy().add(offset));
-//        boolean rightClear = !isLineBlocked(start.cpy().sub(offset), end.cpy().sub(offset));
-//
-//        boolean pathClear = centerClear && leftClear && rightClear;
-//
-////        System.out.println(pathClear + ": " + start + " to " + end);
-//
-//        return pathClear;
-//    }
+    /** Drops the route, so the next update plans a new one */
+    private void clearRoute() {
+        route.clear();
+        routeIndex = 0;
+        pathRecalcTimer = PATH_RECALC_INTERVAL;
+    }
 
     private void moveTowards(Vector2 target, float speed) {
         Vector2 enemyPos = enemy.getPosition();
-        Vector2 direction = new Vector2(target).sub(enemyPos);
+        Vector2 direction = steer.set(target).sub(enemyPos);
 
         if (direction.len() > 0.1f) { // Prevent division by zero
             direction.nor();
+            // Keep clear of walls so the body does not snag on corners
+            NavField field = graph.getField();
+            float clearance = field.wallDistance(enemyPos.x, enemyPos.y);
+            if (clearance < WALL_CLEARANCE) {
+                field.awayFromWalls(enemyPos.x, enemyPos.y, awayFromWall);
+                direction.mulAdd(awayFromWall, WALL_PUSH * (1 - clearance / WALL_CLEARANCE)).nor();
+            }
         } else {
             // Already close enough or no direction to move
             direction.setZero();
@@ -475,64 +619,90 @@ public class AIController {
         enemy.setVerticalMovement(vmove * speed);
     }
 
-    public void update(float delta) {
-//        enemy.setScale(scale);
-        Vector2 enemyPos = enemy.getPosition();
-        Vector2 playerPos = player.getPosition();
-        if (enemyPos == null || playerPos == null) {
+    /**
+     * Shortens a sight ray so it ends where it first touches a wall tile.
+     * The front-facing camera sees over walls, so its rays are left alone.
+     */
+    private void clipToWalls(Vector2 start, Vector2 end) {
+        if (type == Type.CAMERA2) {
             return;
         }
+        float t = solids.raycast(start.x, start.y, end.x, end.y);
+        if (t >= 0) {
+            end.sub(start).scl(t).add(start);
+        }
+    }
+
+    /**
+     * Picks this tick's sight range from the detection timer and returns it.
+     * Called by the perception stage before it snapshots this enemy.
+     */
+    float prepareSense() {
         if (detectionTimer > 0) {
             detectionRange = enemy.getAlertDetectionRange();
         } else {
             detectionRange = enemy.getBaseDetectionRange();
         }
+        return detectionRange;
+    }
 
-        playerDetected = false;
-//        boolean isCamera = type == Type.CAMERA1 || type == Type.CAMERA2;
-        float distanceToPlayer = enemyPos.dst(playerPos);
-        boolean enemyInRange = distanceToPlayer <= detectionRange;
-
-        if (!player.isHidden() && enemyInRange) {
-            float angleLooking = enemy.getRotation();
-            float halfFOV = (float) Math.toRadians(fov / 2);
-            int numRays = 10;
-            float angleStep = (halfFOV * 2) / (numRays - 1);
-
-            for (int i = 0; i < numRays; i++) {
-                float rayAngle = angleLooking - halfFOV + (i * angleStep);
-
-                Vector2 direction = new Vector2((float) Math.cos(rayAngle), (float) Math.sin(rayAngle));
-                Vector2 rayEnd = enemyPos.cpy().add(direction.scl(detectionRange));
-
-                final Vector2 rayHit = rayEnd.cpy(); // Initialize the ray hit position
+    /** Sets the result of this tick's sight test from the perception stage */
+    void setPlayerDetected(boolean value) { playerDetected = value; }
+
+    /**
+     * Picks how much work this guard gets from now on. Guards that are near
+     * the player, in view, or anything but calm stay at full detail; calm
+     * guards farther away think less often, and patrolling guards that are
+     * very far away ride their patrol path without physics forces.
+     * Cameras are cheap and always run at full detail.
+     *
+     * @param view the visible part of the world, in world units
+     */
+    void chooseDetail(Rectangle view) {
+        Vector2 enemyPos = enemy.getPosition();
+        Vector2 playerPos = player.getPosition();
+        Detail next;
+        if (type == Type.CAMERA1 || type == Type.CAMERA2 || enemyPos == null || playerPos == null) {
+            next = Detail.FULL;
+        } else if (state == State.CHASE || state == State.ALERT || detectionTimer > 0
+            || gameplay.isGlobalChase() || view.contains(enemyPos)) {
+            next = Detail.FULL;
+        } else {
+            float dist2 = enemyPos.dst2(playerPos);
+            if (dist2 < NEAR_DISTANCE * NEAR_DISTANCE) {
+                next = Detail.FULL;
+            } else if (patrol && dist2 > RAILS_DISTANCE * RAILS_DISTANCE) {
+                next = Detail.RAILS;
+            } else {
+                next = Detail.REDUCED;
+            }
+        }
+        if (next == detail) {
+            return;
+        }
 
-                RayCastCallback callback = (fixture, point, normal, fraction) -> {
-                    Object userData = fixture.getBody().getUserData();
+        if (next == Detail.RAILS) {
+            boardRails(enemyPos);
+        } else if (detail == Detail.RAILS) {
+            // Plan from wherever the rail left us on the next update
+            rail = null;
+            waypoint = null;
+            clearRoute();
+        }
+        thinkTimer = 0;
+        detail = next;
+    }
 
-                    // Skip transparent objects like spray, bomb, or goal
-                    if (userData instanceof Grate || userData instanceof Spray || userData instanceof Bomb || userData instanceof Door) {
-                        //enemy.getType() is Camera2 return -1 for Collision
-                        return -1f;  // Continue the ray without stopping
-                    }
-                    if (type == Type.CAMERA2 && (userData instanceof Collision || dst2(point.x, point.y, enemyPos.x, enemyPos.y) < 0.5f)) {
-                        return -1f; // Skip walls for front-facing camera and avoid reading through walls
-                    }
-                    // Store the hit position when encountering an obstacle
-                    rayHit.set(point);
-                    return fraction;  // Stop ray at the first obstacle or player hit
-                };
-
-                // Perform the raycast from the enemy position to the rayEnd point
-                physics.getWorld().rayCast(callback, enemyPos, rayEnd);
-
-                // After the raycast, check what is at the end of the ray
-                // If the ray ends at the player, detect the player
-                if (rayHit.epsilonEquals(playerPos, 1f)) {  // Use epsilonEquals for tolerance
-                    playerDetected = true;
-                    break;  // Stop as soon as the player is detected
-                }
-            }
+    /**
+     * Applies this tick's perception result and runs the state machine.
+     * The perception stage must have sensed this enemy first.
+     */
+    public void update(float delta) {
+//        enemy.setScale(scale);
+        Vector2 enemyPos = enemy.getPosition();
+        Vector2 playerPos = player.getPosition();
+        if (enemyPos == null || playerPos == null) {
+            return;
         }
 
         // Camera updates separately
@@ -541,6 +711,45 @@ public class AIController {
             return;
         }
 
+        if (detail == Detail.RAILS) {
+            rideRails(enemyPos);
+            enemy.update(delta);
+            return;
+        }
+        if (detail == Detail.REDUCED) {
+            // Think with all the time since the last thought; steer every tick
+            thinkTimer += delta;
+            if (thinkTimer >= REDUCED_THINK_INTERVAL) {
+                think(thinkTimer, enemyPos, playerPos);
+                thinkTimer = 0;
+            }
+        } else {
+            think(delta, enemyPos, playerPos);
+        }
+
+        // Ensure the enemy updates its physics forces properly
+        enemy.applyForce();
+        enemy.update(delta);
+
+        // Animation
+        if (blueRedPlayingForward) {
+            blueRedTime += delta;
+            if (blueRedTime >= blueRedDuration) {
+                blueRedTime = blueRedDuration;
+                blueRedPlayingForward = false;
+            }
+        } else if (blueRedPlayingBackward) {
+            blueRedTime -= delta;
+            if (blueRedTime <= 0f) {
+                blueRedTime = 0f;
+                blueRedPlayingBackward = false;
+            }
+        }
+        enemy.setBlueRedTime(blueRedTime);
+    }
+
+    /** Updates the detection timers and runs the state machine */
+    private void think(float delta, Vector2 enemyPos, Vector2 playerPos) {
         // Detection logic first: always grows/shrinks no matter the state
         if (playerDetected) {
             detectionTimer = Math.min(detectionThreshold + 0.5f, detectionTimer + delta);
@@ -576,7 +785,7 @@ public class AIController {
             }
             if (playerDetected && detectionTimer > detectionThreshold) {
                 state = State.CHASE;
-                enemy.getSpottedSound().play();
+                AudioBus.getInstance().play(enemy.getSpottedSound());
             }
 //            System.out.println(enemy.getName() + " state now: " + state);
         } else if (state == State.PATROL) {
@@ -586,7 +795,7 @@ public class AIController {
 //                blueRedPlayingForward = true;
 //                blueRedPlayingBackward = false;
                 blueRedTime = 0f;
-                enemy.getSpottedSound().play();
+                AudioBus.getInstance().play(enemy.getSpottedSound());
             } else if (gameplay.isGlobalChase()) {
                 state = State.ALERT;
                 alertTimer = 0;
@@ -599,32 +808,92 @@ public class AIController {
 //                blueRedPlayingForward = true;
 //                blueRedPlayingBackward = false;
                 blueRedTime = 0f;
-                enemy.getSpottedSound().play();
+                AudioBus.getInstance().play(enemy.getSpottedSound());
             } else if (gameplay.isGlobalChase()) {
                 state = State.ALERT;
                 alertTimer = 0f;
                 detectionTimer = detectionThreshold;
             }
         }
-        // Ensure the enemy updates its physics forces properly
-        enemy.applyForce();
-        enemy.update(delta);
+    }
 
-        // Animation
-        if (blueRedPlayingForward) {
-            blueRedTime += delta;
-            if (blueRedTime >= blueRedDuration) {
-                blueRedTime = blueRedDuration;
-                blueRedPlayingForward = false;
-            }
-        } else if (blueRedPlayingBackward) {
-            blueRedTime -= delta;
-            if (blueRedTime <= 0f) {
-                blueRedTime = 0f;
-                blueRedPlayingBackward = false;
-            }
+    /** Seconds between path plans at the current level of detail */
+    private float pathInterval() {
+        // Pick a queued search up as soon as it is done
+        if (pathFinder.isSearching()) {
+            return 0;
         }
-        enemy.setBlueRedTime(blueRedTime);
+        return detail == Detail.REDUCED ? REDUCED_PATH_INTERVAL : PATH_RECALC_INTERVAL;
+    }
+
+    /**
+     * Starts riding the patrol path. The way from here to the current patrol
+     * point is planned once; every later leg comes from the rail cache.
+     */
+    @SuppressWarnings("unchecked")
+    private void boardRails(Vector2 enemyPos) {
+        if (patrolRails == null) {
+            patrolRails = new Array[patrolPath.size()];
+        }
+        rail = planRail(enemyPos, patrolPoint(patrolIndex, new Vector2()));
+        railIndex = 0;
+        enemy.setMovement(0);
+        enemy.setVerticalMovement(0);
+    }
+
+    /** Returns the cached path of the patrol leg that ends at the given point */
+    private Array<Vector2> patrolRail(int index) {
+        if (patrolRails[index] == null) {
+            int from = (index + patrolPath.size() - 1) % patrolPath.size();
+            patrolRails[index] = planRail(patrolPoint(from, new Vector2()), patrolPoint(index, new Vector2()));
+        }
+        return patrolRails[index];
+    }
+
+    /** Plans a path to a patrol point and copies it out of the path finder */
+    private Array<Vector2> planRail(Vector2 start, Vector2 end) {
+        Array<Vector2> found = pathFinder.findPathNow(start, end);
+        Array<Vector2> planned = new Array<>(Math.max(found.size, 1));
+        for (Vector2 point : found) {
+            planned.add(new Vector2(point));
+        }
+        if (planned.isEmpty()) {
+            planned.add(end);
+        }
+        return planned;
+    }
+
+    /**
+     * Sets out to the walkable grid point nearest to a patrol point, or to
+     * the patrol point itself if none is near.
+     */
+    private Vector2 patrolPoint(int index, Vector2 out) {
+        float[] point = patrolPath.get(index);
+        int node = graph.nearestNode(point[0], point[1]);
+        return node >= 0 ? out.set(graph.getX(node), graph.getY(node)) : out.set(point[0], point[1]);
+    }
+
+    /**
+     * Moves along the rail by setting the body's velocity directly; no forces
+     * and no planning. At the end of a leg the next cached leg is taken.
+     */
+    private void rideRails(Vector2 enemyPos) {
+        float speed = wanderMaxSpeed;
+        float reach = speed * PATH_RECALC_INTERVAL * 0.5f;
+        while (railIndex < rail.size && enemyPos.dst2(rail.get(railIndex)) < reach * reach) {
+            railIndex++;
+        }
+        if (railIndex >= rail.size) {
+            patrolIndex = (patrolIndex + 1) % patrolPath.size();
+            rail = patrolRail(patrolIndex);
+            railIndex = 0;
+        }
+
+        railVelocity.set(rail.get(railIndex)).sub(enemyPos);
+        if (railVelocity.len2() > 0) {
+            railVelocity.nor().scl(speed);
+        }
+        enemy.getObstacle().setLinearVelocity(railVelocity);
     }
 
     private Vector2 waypoint;
@@ -635,14 +904,10 @@ public class AIController {
         enemy.setAlertAnimationFrame(12);
         enemy.setMaxSpeed(chaseMaxSpeed);
         target = playerPos;
-        pathRecalcTimer += delta;
-        if (pathRecalcTimer >= PATH_RECALC_INTERVAL) {
-            pathRecalcTimer = 0;
-            waypoint = getNextPathPoint(enemyPos, target);
-        }
+        waypoint = followPath(delta, enemyPos, target);
         if (waypoint != null) {
             moveTowards(waypoint, chaseSpeed);
-        } else {
+        } else if (!pathFinder.isSearching()) {
             state = State.ALERT;
         }
     }
@@ -652,14 +917,7 @@ public class AIController {
         enemy.setAlertAnimationFrame(11);
         enemy.setMaxSpeed(alertMaxSpeed);
         target = player.getLastSeen();
-        pathRecalcTimer += delta;
-        if (pathRecalcTimer >= PATH_RECALC_INTERVAL) {
-            pathRecalcTimer = 0;
-            waypoint = getNextPathPoint(enemyPos, target);
-//            if (waypoint == null) {
-//                System.out.println("waypoint null!");
-//            }
-        }
+        waypoint = followPath(delta, enemyPos, target);
         if (waypoint != null) {
             moveTowards(waypoint, chaseSpeed);
         }
@@ -667,7 +925,7 @@ public class AIController {
 
     private float lastPatrolX = 0;
     private float lastPatrolY = 0;
-    NavNode targetNode;
+    private final Vector2 patrolTarget = new Vector2();
 
     private void patrolState(float delta, Vector2 enemyPos) {
         int frame = MathUtils.clamp(
@@ -688,7 +946,7 @@ public class AIController {
         if (patrolX != lastPatrolX || patrolY != lastPatrolY) {
             lastPatrolX = patrolX;
             lastPatrolY = patrolY;
-            targetNode = graph.getNearestWalkableNode(new Vector2(patrolX, patrolY));
+            patrolPoint(patrolIndex, patrolTarget);
         }
 
 //        if (targetNode == null) {
@@ -696,12 +954,8 @@ public class AIController {
 //            enemy.setVerticalMovement(0);
 //            return;
 //        }
-        target = targetNode.position;
-        pathRecalcTimer += delta;
-        if (pathRecalcTimer >= PATH_RECALC_INTERVAL) {
-            pathRecalcTimer = 0;
-            waypoint = getNextPathPoint(enemyPos, target);
-        }
+        target = patrolTarget;
+        waypoint = followPath(delta, enemyPos, target);
         if (waypoint != null) {
             moveTowards(waypoint, wanderSpeed);
         } else {
@@ -732,11 +986,7 @@ public class AIController {
             wanderTimer = 0f;
             pickNewWanderTarget();
         }
-        pathRecalcTimer += delta;
-        if (pathRecalcTimer >= PATH_RECALC_INTERVAL) {
-            pathRecalcTimer = 0;
-            waypoint = getNextPathPoint(enemyPos, target);
-        }
+        waypoint = followPath(delta, enemyPos, target);
         if (waypoint != null) {
             moveTowards(waypoint, wanderSpeed);
         } else {
@@ -931,52 +1181,68 @@ public class AIController {
         shapeRenderer.setColor(Color.BLUE);
         shapeRenderer.line(rightStart, rightEnd);
     }
+    /** Number of rays used to draw the vision cone */
+    private static final int VISION_RAYS = 10;
+    /** Tint of the vision cone */
+    private static final Color VISION_COLOR = new Color(1, 0, 0, 0.2f);
+    /** Reused cone hit points (screen space) so drawing does not allocate */
+    private final Vector2[] visionHits = new Vector2[VISION_RAYS];
+    private final Array<Vector2> hitPoints = new Array<>(VISION_RAYS);
+    private final Vector2 enemyWorldPos = new Vector2();
+    private final Vector2 enemyScreenPos = new Vector2();
+    private final Vector2 rayEndWorld = new Vector2();
+    private final Vector2 rayHitWorld = new Vector2();
+    private final RayCastCallback visionCallback = (fixture, point, normal, fraction) -> {
+        Object userData = fixture.getBody().getUserData();
+
+        if (userData instanceof Grate || userData instanceof Spray || userData instanceof Bomb || userData instanceof Goal || userData instanceof Chameleon || userData instanceof Enemy || userData instanceof Laser
+            || userData instanceof Collision) {
+            return -1f; // Skip transparent; walls were already clipped on the grid
+        }
+        if (type == Type.CAMERA2 && dst2(point.x, point.y, enemyWorldPos.x, enemyWorldPos.y) < 0.5f) {
+            return -1f; // Avoid reading through walls
+        }
+
+        rayHitWorld.set(point);
+        return fraction;
+    };
+
     public void drawEnemyVision(OrthographicCamera camera, SpriteBatch batch) {
         shapeRenderer.setProjectionMatrix(camera.combined);
         Gdx.gl.glEnable(GL20.GL_BLEND);
         Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
 
-        Vector2 enemyWorldPos = new Vector2(enemy.getPosition().x, enemy.getPosition().y);
-        Vector2 enemyScreenPos = new Vector2(enemyWorldPos.x * scale, enemyWorldPos.y * scale);
+        enemyWorldPos.set(enemy.getPosition().x, enemy.getPosition().y);
+        enemyScreenPos.set(enemyWorldPos.x * scale, enemyWorldPos.y * scale);
 
         float halfFOV = (float) Math.toRadians(fov / 2);
-        int numRays = (int) 10f;  // high = smoother
+        int numRays = VISION_RAYS;  // high = smoother
         float angleStep = (halfFOV * 2) / (numRays - 1);
 
         float angleToLook = enemy.getRotation();
 
-        shapeRenderer.setColor(new Color(1, 0, 0, 0.2f));
+        shapeRenderer.setColor(VISION_COLOR);
 
-        Array<Vector2> hitPoints = new Array<>();
+        hitPoints.clear();
 
         for (int i = 0; i < numRays; i++) {
             float rayAngle = angleToLook - halfFOV + i * angleStep;
 
-            Vector2 direction = new Vector2((float) Math.cos(rayAngle), (float) Math.sin(rayAngle));
-            Vector2 rayEndWorld = enemyWorldPos.cpy().add(direction.scl(detectionRange));
-
-            Vector2 rayHitWorld = rayEndWorld.cpy();
+            rayEndWorld.set((float) Math.cos(rayAngle), (float) Math.sin(rayAngle))
+                .scl(detectionRange).add(enemyWorldPos);
+            clipToWalls(enemyWorldPos, rayEndWorld);
+            rayHitWorld.set(rayEndWorld);
 
-            RayCastCallback callback = (fixture, point, normal, fraction) -> {
-                Object userData = fixture.getBody().getUserData();
-
-                if (userData instanceof Grate || userData instanceof Spray || userData instanceof Bomb || userData instanceof Goal || userData instanceof Chameleon || userData instanceof Enemy || userData instanceof Laser) {
-                    return -1f; // Skip transparent
-                }
-                if (type == Type.CAMERA2 && (userData instanceof Collision || dst2(point.x, point.y, enemyWorldPos.x, enemyWorldPos.y) < 0.5f)) {
-                    return -1f; // Skip walls for front-facing camera and avoid reading through walls
-                }
-
-                rayHitWorld.set(point);
-                return fraction;
-            };
             if(enemyWorldPos.dst(rayEndWorld) != 0){
-                physics.getWorld().rayCast(callback, enemyWorldPos, rayEndWorld);
+                physics.getWorld().rayCast(visionCallback, enemyWorldPos, rayEndWorld);
             }
 
             // SCALE back up for screen drawing
-            Vector2 screenHit = new Vector2(rayHitWorld.x * scale, rayHitWorld.y * scale);
+            if (visionHits[i] == null) {
+                visionHits[i] = new Vector2();
+            }
+            Vector2 screenHit = visionHits[i].set(rayHitWorld.x * scale, rayHitWorld.y * scale);
             hitPoints.add(screenHit);
         }
 
@@ -1027,8 +1293,14 @@ public class AIController {
         batch.end();
     }
 
+    /** Releases the debug renderer; the controller must not be drawn afterwards */
+    public void dispose() {
+        shapeRenderer.dispose();
+    }
+
     public Enemy getEnemy() { return enemy; }
     public State getState() { return state; }
+    public Detail getDetail() { return detail; }
     public void setState(State value) { state = value; }
     public boolean getPlayerDetected() { return playerDetected; }
 //    public NavGraph getGraph() { return graph; }
@@ -0,0 +1,94 @@
+package chroma.controller;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.assets.AssetDirectory;
+
+/**
+ * AssetHandles
+ * ------------
+ * Typed table of the assets used on the gameplay hot paths (drawing, spraying
+ * and bomb spawning). Every entry is looked up in the AssetDirectory once, when
+ * the table is created, so per-frame code never does string-keyed lookups.
+ *
+ * Each GameplayController owns one table. The directory is loaded once and
+ * never reloaded, so the handles stay valid for the life of the controller.
+ */
+public class AssetHandles {
+    // UI overlay
+    public Texture vignette;
+    public Texture paintBody;
+    public Texture paintTop;
+    public Texture paintOverlay;
+    public Texture goalUnpainted;
+    public Texture goalPainted;
+
+    // End-of-level and pause screens
+    public Texture winScreen;
+    public Texture loseScreen;
+    public Texture restart;
+    public Texture menu;
+    public Texture nextLab;
+    public Texture resume;
+    public Texture pauseSheet;
+
+    // Tutorial hints
+    public Texture hintWalk;
+    public Texture hintGoal;
+    public Texture hintSpray;
+    public Texture hintBomb;
+
+    // Bomb skill
+    public Texture aimingRange;
+    public Texture bombBullet;
+    public Texture bombFade;
+    public Sound bombSound;
+    public JsonValue bombData;
+
+    // Spray
+    public Texture sprayFade;
+    public Texture sprayLaunch;
+
+    /**
+     * Creates a table resolved against the given directory.
+     *
+     * @param directory the loaded asset directory
+     */
+    public AssetHandles(AssetDirectory directory) {
+        vignette = directory.getEntry("vignette", Texture.class);
+        paintBody = directory.getEntry("paint-body", Texture.class);
+        paintTop = directory.getEntry("paint-top", Texture.class);
+        paintOverlay = directory.getEntry("paint-overlay", Texture.class);
+        goalUnpainted = directory.getEntry("goal_unpainted", Texture.class);
+        goalPainted = directory.getEntry("goal_painted", Texture.class);
+
+        winScreen = directory.getEntry("win-screen", Texture.class);
+        loseScreen = directory.getEntry("lose-screen", Texture.class);
+        restart = directory.getEntry("restart", Texture.class);
+        menu = directory.getEntry("menu", Texture.class);
+        nextLab = directory.getEntry("next-lab", Texture.class);
+        resume = directory.getEntry("resume", Texture.class);
+        pauseSheet = nearest(directory.getEntry("pause-screen", Texture.class));
+
+        hintWalk = nearest(directory.getEntry("tutorialhints_walk", Texture.class));
+        hintGoal = nearest(directory.getEntry("tutorialhints_goal", Texture.class));
+        hintSpray = nearest(directory.getEntry("tutorialhints_spray", Texture.class));
+        hintBomb = nearest(directory.getEntry("tutorialhints_bomb", Texture.class));
+
+        aimingRange = directory.getEntry("aiming-range", Texture.class);
+        bombBullet = nearest(directory.getEntry("platform-bullet", Texture.class));
+        bombFade = nearest(directory.getEntry("bomb_fade", Texture.class));
+        bombSound = directory.getEntry("bomb", Sound.class);
+        bombData = directory.getEntry("platform-constants", JsonValue.class).get("bomb");
+
+        sprayFade = nearest(directory.getEntry("spray_fade", Texture.class));
+        sprayLaunch = nearest(directory.getEntry("spray_launch", Texture.class));
+    }
+
+    /** Sets nearest filtering on a pixel-art texture and returns it */
+    private static Texture nearest(Texture texture) {
+        texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        return texture;
+    }
+}
@@ -0,0 +1,154 @@
+package chroma.controller;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * AudioBus
+ * --------
+ * Collects the sound requests made during the fixed-step loop and sends them
+ * to the audio backend once per frame.
+ * <p>
+ * One-shot events are de-duplicated per frame, so ten bombs landing in the
+ * same frame play their splatter once. Short effects play on a fixed ring of
+ * voices per sound; when the ring is full the oldest voice is stopped. Music
+ * that should keep playing while a condition holds (like footsteps) is set
+ * as a state, and only changes of that state reach OpenAL.
+ */
+public class AudioBus {
+    /** Concurrent voices per sound unless set otherwise */
+    private static final int DEFAULT_VOICES = 4;
+
+    /**
+     * The instance of the audio bus for each thread. The game only uses the
+     * render thread; a headless simulation runs each level on its own
+     * thread, with its own bus.
+     */
+    private static final ThreadLocal<AudioBus> theBus = ThreadLocal.withInitial(AudioBus::new);
+
+    /**
+     * Returns the calling thread's instance of the audio bus
+     *
+     * @return the calling thread's instance of the audio bus
+     */
+    public static AudioBus getInstance() {
+        return theBus.get();
+    }
+
+    // Events requested since the last flush
+    private final Array<Sound> pendingSounds = new Array<>(false, 8);
+    private final Array<Music> pendingMusic = new Array<>(false, 8);
+
+    // Music with a playing state, and what was asked for since the last flush
+    private final Array<Music> tracks = new Array<>();
+    private final BooleanArray trackWanted = new BooleanArray();
+    private final BooleanArray trackActive = new BooleanArray();
+
+    private final ObjectMap<Sound, Voices> voices = new ObjectMap<>();
+
+    private AudioBus() { }
+
+    /** Requests a one-shot sound effect this frame */
+    public void play(Sound sound) {
+        if (sound != null && !pendingSounds.contains(sound, true)) {
+            pendingSounds.add(sound);
+        }
+    }
+
+    /** Requests a one-shot play of a music clip this frame */
+    public void play(Music music) {
+        if (music != null && !pendingMusic.contains(music, true)) {
+            pendingMusic.add(music);
+        }
+    }
+
+    /**
+     * Sets whether a music clip should be playing. The last request before a
+     * flush wins; the clip is restarted whenever it ends while wanted. A clip
+     * is only kept playing while it is requested again before every flush, so
+     * it stops by itself once its owner is no longer updated.
+     */
+    public void setPlaying(Music music, boolean playing) {
+        if (music == null) {
+            return;
+        }
+        int index = tracks.indexOf(music, true);
+        if (index < 0) {
+            tracks.add(music);
+            trackWanted.add(playing);
+            trackActive.add(false);
+        } else {
+            trackWanted.set(index, playing);
+        }
+    }
+
+    /**
+     * Sets how many instances of a sound may play at once.
+     *
+     * @param sound the sound effect
+     * @param limit the number of voices, at least 1
+     */
+    public void setVoiceLimit(Sound sound, int limit) {
+        voices.put(sound, new Voices(Math.max(1, limit)));
+    }
+
+    /**
+     * Sends this frame's requests to the audio backend. Call once per frame
+     * in which the simulation stepped, after the steps, and once when the
+     * screen is hidden to stop its clips.
+     */
+    public void flush() {
+        for (Sound sound : pendingSounds) {
+            Voices ring = voices.get(sound);
+            if (ring == null) {
+                ring = new Voices(DEFAULT_VOICES);
+                voices.put(sound, ring);
+            }
+            ring.play(sound);
+        }
+        pendingSounds.clear();
+
+        for (Music music : pendingMusic) {
+            music.play();
+        }
+        pendingMusic.clear();
+
+        for (int ii = 0; ii < tracks.size; ii++) {
+            Music music = tracks.get(ii);
+            if (trackWanted.get(ii)) {
+                if (!music.isPlaying()) {
+                    music.play();
+                }
+                trackActive.set(ii, true);
+            } else if (trackActive.get(ii)) {
+                music.stop();
+                trackActive.set(ii, false);
+            }
+            trackWanted.set(ii, false);
+        }
+    }
+
+    /** A fixed ring of sound instance ids; the oldest is reused when full */
+    private static class Voices {
+        private final long[] ids;
+        private int next;
+        private int count;
+
+        Voices(int limit) {
+            ids = new long[limit];
+        }
+
+        void play(Sound sound) {
+            if (count == ids.length) {
+                sound.stop(ids[next]);
+            } else {
+                count++;
+            }
+            ids[next] = sound.play();
+            next = (next + 1) % ids.length;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package chroma.controller;
+
+import static chroma.model.Level.createAnimation;
+
+import chroma.model.Bomb;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * BombPool
+ * --------
+ * Recycles paint bombs, so a volley neither allocates nor builds Box2D
+ * bodies while it is being thrown.
+ * <p>
+ * A bomb's body is built the first time the pool needs the bomb and stays
+ * in the world until the level ends. A bomb out of play is parked: its body
+ * is inactive, so it has no contacts and costs nothing to step. Launching it
+ * only moves and wakes the body. All bombs share one fade animation.
+ */
+public class BombPool {
+    private final PhysicsController physics;
+    private final AssetHandles assets;
+    private final float units;
+    private final Animation<TextureRegion> fadeAnim;
+    /** Picks each splatter's rotation */
+    private final RandomXS128 random;
+    private final Array<Bomb> parked = new Array<>(false, 16);
+
+    /**
+     * Creates an empty pool for a physics world.
+     *
+     * @param physics the world the bombs live in
+     * @param assets  the bomb textures, sound and settings
+     * @param units   the physics units
+     * @param random  the world's random numbers
+     */
+    public BombPool(PhysicsController physics, AssetHandles assets, float units, RandomXS128 random) {
+        this.physics = physics;
+        this.random = random;
+        this.assets = assets;
+        this.units = units;
+        this.fadeAnim = createAnimation(assets.bombFade, 12, 0.6f);
+    }
+
+    /**
+     * Makes sure at least count bombs are parked and ready, building any
+     * that are missing now. Call when a volley is planned, so its bodies are
+     * all built in one step instead of one per throw.
+     */
+    public void reserve(int count) {
+        while (parked.size < count) {
+            parked.add(create());
+        }
+    }
+
+    /**
+     * Throws a parked bomb from start towards target, building one if none
+     * is left.
+     *
+     * @return the bomb, now in play
+     */
+    public Bomb launch(Vector2 start, Vector2 target) {
+        Bomb bomb = parked.size > 0 ? parked.pop() : create();
+        bomb.launch(start, target, random.nextFloat() * 360f);
+        physics.resumeObject(bomb);
+        return bomb;
+    }
+
+    /** Takes a bomb out of play and keeps it for the next throw */
+    public void free(Bomb bomb) {
+        physics.parkObject(bomb);
+        parked.add(bomb);
+    }
+
+    private Bomb create() {
+        Bomb bomb = new Bomb(units, assets.bombData, assets.bombBullet, assets.bombFade,
+            assets.bombSound, fadeAnim);
+        physics.addParkedObject(bomb);
+        return bomb;
+    }
+}
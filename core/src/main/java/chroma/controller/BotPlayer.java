@@ -0,0 +1,391 @@
+package chroma.controller;
+
+import chroma.model.Chameleon;
+import chroma.model.Goal;
+import chroma.model.SolidGrid;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import java.util.List;
+
+/**
+ * BotPlayer
+ * ---------
+ * Plays a level through the same input a player gives, so the game can be
+ * left running for hours without anyone at the keyboard.
+ * <p>
+ * Each frame the bot picks what to do. With every goal painted it heads for
+ * the door. While a guard is alerted it sprays paint around itself and
+ * waits in it, hidden. Otherwise it walks to the nearest unpainted goal and
+ * sprays it, now and then throwing a volley of bombs at it instead. It
+ * walks like a guard, along a string-pulled A* path over the level's nav
+ * graph, and aims by pointing at where its target is on the screen.
+ * <p>
+ * Every frame is one simulation step, and the bot's choices come from its
+ * own seeded random numbers, so a bot plays a level the same way every time.
+ * A play ends when the level is won or lost, or once the bot has been at it
+ * for the attempt limit; {@link #isFinished()} is then true and the level
+ * should be restarted.
+ */
+public class BotPlayer implements InputScript {
+    /** What the bot is doing */
+    private enum Task {
+        PAINT, BOMB, HIDE, EXIT, WAIT
+    }
+
+    /** A waypoint counts as reached within this distance (in tiles) */
+    private static final float ARRIVE_DISTANCE = 0.3f;
+    /** Half the width of the chameleon, for smoothing its paths */
+    private static final float BODY_RADIUS = 0.4f;
+    /** The bot sprays a goal from this close; the spray reaches 5 tiles */
+    private static final float SPRAY_RANGE = 3.5f;
+    /** Seconds between sprays, so that each is a click of its own */
+    private static final float SPRAY_INTERVAL = 0.25f;
+    /** Seconds before the route to the same target is planned again */
+    private static final float REPLAN_INTERVAL = 2f;
+    /** Seconds spent on one goal before the bot gives up on it */
+    private static final float GOAL_PATIENCE = 30f;
+    /** Chance that the bot bombs a goal it has reached instead of spraying it */
+    private static final float BOMB_CHANCE = 0.25f;
+    /** Frames a volley spends painting targets before letting go */
+    private static final int BOMB_FRAMES = 10;
+    /** Screen pixels the pointer moves each frame while painting targets */
+    private static final int BOMB_STROKE = 12;
+
+    private final GameplayController gameplay;
+    private final long seed;
+    /** Simulated seconds a play may last before the level is restarted */
+    private final float attemptSeconds;
+    private final RandomXS128 random;
+
+    // The level being played; rebuilt whenever the controller builds a new one
+    private NavGraph graph;
+    private SolidGrid solids;
+    private PathSmoother smoother;
+    private IndexedAStarPathFinder<NavGraph.Node> pathFinder;
+    private final DefaultGraphPath<NavGraph.Node> nodePath = new DefaultGraphPath<>();
+    private final Heuristic<NavGraph.Node> heuristic = (node, end) -> {
+        float dx = Math.abs(graph.getX(node.id) - graph.getX(end.id));
+        float dy = Math.abs(graph.getY(node.id) - graph.getY(end.id));
+        return Math.max(dx, dy) + ((float) Math.sqrt(2) - 1) * Math.min(dx, dy);
+    };
+
+    /** Grid points of the last path, reused from plan to plan */
+    private final Array<Vector2> points = new Array<>();
+    private final Array<Vector2> path = new Array<>();
+    /** Smoothed waypoints being followed, the one being approached, and what they lead to */
+    private final Array<Vector2> route = new Array<>();
+    private int routeIndex;
+    private final Vector2 routeTarget = new Vector2();
+    private float replanTimer;
+
+    private float elapsed;
+    private Task task = Task.WAIT;
+    /** The goal being painted, how long it has taken, and the goals given up on */
+    private Goal target;
+    private float targetTime;
+    private final Array<Goal> skipped = new Array<>();
+    /** The goal the bot last decided whether to bomb */
+    private Goal rolledFor;
+    private float sprayTimer;
+    private int bombFrame;
+
+    // Totals over every play, for reports
+    private int sprays;
+    private int volleys;
+    private int hides;
+
+    // The current frame
+    private float delta;
+    private int buttons;
+    private float horizontal;
+    private float vertical;
+    private int screenX;
+    private int screenY;
+
+    private final Vector3 screen = new Vector3();
+    private final Vector2 steer = new Vector2();
+    private final Vector2 aimCache = new Vector2();
+
+    /**
+     * Creates a bot for a level.
+     *
+     * @param gameplay       the controller whose level the bot plays
+     * @param seed           the seed for the bot's own choices
+     * @param attemptSeconds how long a play may last before it is restarted
+     */
+    public BotPlayer(GameplayController gameplay, long seed, float attemptSeconds) {
+        this.gameplay = gameplay;
+        this.seed = seed;
+        this.attemptSeconds = attemptSeconds;
+        this.random = new RandomXS128(seed);
+    }
+
+    /** Returns the number of sprays the bot has fired */
+    public int getSprayCount() { return sprays; }
+
+    /** Returns the number of bomb volleys the bot has thrown */
+    public int getVolleyCount() { return volleys; }
+
+    /** Returns the number of times the bot has painted itself to hide */
+    public int getHideCount() { return hides; }
+
+    /** Returns true once the current play has gone on for the attempt limit */
+    @Override
+    public boolean isFinished() {
+        return elapsed >= attemptSeconds;
+    }
+
+    /** Starts over as on a new play, with the same choices as the first */
+    @Override
+    public void rewind() {
+        random.setSeed(seed);
+        graph = null;
+        elapsed = 0;
+    }
+
+    @Override
+    public boolean nextTick() {
+        delta = gameplay.getFixedStep();
+        buttons = 0;
+        horizontal = 0;
+        vertical = 0;
+        Chameleon player = gameplay.getPlayer();
+        if (player == null || gameplay.getNavGraph() == null) {
+            return true;
+        }
+        if (gameplay.getNavGraph() != graph) {
+            bind();
+        }
+        if (isFinished()) {
+            return false;
+        }
+        elapsed += delta;
+        if (gameplay.isLevelOver()) {
+            return true;
+        }
+
+        sprayTimer -= delta;
+        replanTimer -= delta;
+        Vector2 pos = player.getObstacle().getPosition();
+        task = chooseTask(player, pos);
+        switch (task) {
+            case PAINT:
+                paint(player, pos);
+                break;
+            case BOMB:
+                bomb();
+                break;
+            case HIDE:
+                hide(player, pos);
+                break;
+            case EXIT:
+                walk(pos, gameplay.getLevel().getGoalDoor().getCenter());
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /** Starts on the level the controller has just built */
+    private void bind() {
+        graph = gameplay.getNavGraph();
+        solids = gameplay.getLevel().getSolidGrid();
+        smoother = new PathSmoother(solids, graph, BODY_RADIUS);
+        pathFinder = new IndexedAStarPathFinder<>(graph);
+        route.clear();
+        routeIndex = 0;
+        replanTimer = 0;
+        elapsed = 0;
+        task = Task.WAIT;
+        target = null;
+        rolledFor = null;
+        skipped.clear();
+        sprayTimer = 0;
+        bombFrame = 0;
+    }
+
+    private Task chooseTask(Chameleon player, Vector2 pos) {
+        if (task == Task.BOMB && bombFrame <= BOMB_FRAMES) {
+            return Task.BOMB;
+        }
+        if (gameplay.getPhysics().goalsFull()) {
+            return gameplay.getLevel().getGoalDoor() != null ? Task.EXIT : Task.WAIT;
+        }
+        if (gameplay.isAlarmed() && player.getPaint() > 0) {
+            return Task.HIDE;
+        }
+        Goal next = nearestOpenGoal(pos);
+        if (next != target) {
+            target = next;
+            targetTime = 0;
+        }
+        targetTime += delta;
+        if (target != null && targetTime > GOAL_PATIENCE) {
+            skipped.add(target);
+            target = null;
+        }
+        return target != null ? Task.PAINT : Task.WAIT;
+    }
+
+    /** Walks to the target goal and sprays it, or starts a volley at it */
+    private void paint(Chameleon player, Vector2 pos) {
+        float gx = target.getX();
+        float gy = target.getY();
+        if (pos.dst2(gx, gy) > SPRAY_RANGE * SPRAY_RANGE || solids.isLineBlocked(pos.x, pos.y, gx, gy)) {
+            walk(pos, aimCache.set(gx, gy));
+            return;
+        }
+        if (rolledFor != target) {
+            rolledFor = target;
+            if (random.nextFloat() < BOMB_CHANCE && player.getPaint() > player.getMaxPaint() / 2) {
+                task = Task.BOMB;
+                bombFrame = 0;
+                bomb();
+                return;
+            }
+        }
+        if (sprayTimer <= 0) {
+            spray(gx, gy);
+        }
+    }
+
+    /**
+     * Plays one frame of a volley: the skill key, a click on the target,
+     * a stroke across it while held, then letting go.
+     */
+    private void bomb() {
+        if (bombFrame == 0) {
+            buttons = InputController.BIT_SKILL;
+        } else if (bombFrame == 1) {
+            aim(target.getX(), target.getY());
+            buttons = InputController.BIT_LEFT | InputController.BIT_HELD;
+            volleys++;
+        } else if (bombFrame < BOMB_FRAMES) {
+            screenX += BOMB_STROKE;
+            buttons = InputController.BIT_LEFT | InputController.BIT_HELD;
+        }
+        bombFrame++;
+    }
+
+    /** Paints the ground the bot stands on and keeps still in it */
+    private void hide(Chameleon player, Vector2 pos) {
+        if (player.isHidden() || sprayTimer > 0) {
+            return;
+        }
+        // The spray starts at the chameleon, so any direction covers it
+        Goal near = target != null ? target : nearestOpenGoal(pos);
+        if (near != null) {
+            spray(near.getX(), near.getY());
+        } else {
+            spray(pos.x + 1, pos.y);
+        }
+        hides++;
+    }
+
+    private void spray(float x, float y) {
+        aim(x, y);
+        buttons = InputController.BIT_LEFT | InputController.BIT_HELD;
+        sprayTimer = SPRAY_INTERVAL;
+        sprays++;
+    }
+
+    /** Points at a spot in the world, in screen pixels as the mouse gives them */
+    private void aim(float x, float y) {
+        OrthographicCamera camera = gameplay.getCamera();
+        float units = gameplay.getUnits();
+        camera.project(screen.set(x * units, y * units, 0));
+        screenX = (int) screen.x;
+        screenY = Gdx.graphics.getHeight() - 1 - (int) screen.y;
+    }
+
+    /** Steers along the route to a spot, heading straight for it at the end */
+    private void walk(Vector2 pos, Vector2 goal) {
+        if (replanTimer <= 0 || routeTarget.dst2(goal) > 1) {
+            plan(pos, goal);
+        }
+        while (routeIndex < route.size && pos.dst2(route.get(routeIndex)) < ARRIVE_DISTANCE * ARRIVE_DISTANCE) {
+            routeIndex++;
+        }
+        Vector2 next = routeIndex < route.size ? route.get(routeIndex) : goal;
+        steer.set(next).sub(pos);
+        if (steer.len2() > ARRIVE_DISTANCE * ARRIVE_DISTANCE / 4) {
+            steer.nor();
+            horizontal = steer.x;
+            vertical = steer.y;
+        }
+    }
+
+    private void plan(Vector2 pos, Vector2 goal) {
+        route.clear();
+        routeIndex = 0;
+        routeTarget.set(goal);
+        replanTimer = REPLAN_INTERVAL;
+        int start = graph.nearestNode(pos.x, pos.y);
+        int end = graph.nearestNode(goal.x, goal.y);
+        if (start < 0 || end < 0) {
+            return;
+        }
+        nodePath.clear();
+        if (!pathFinder.searchNodePath(graph.getNode(start), graph.getNode(end), heuristic, nodePath)) {
+            return;
+        }
+        path.clear();
+        for (int ii = 0; ii < nodePath.getCount(); ii++) {
+            if (ii == points.size) {
+                points.add(new Vector2());
+            }
+            int id = nodePath.get(ii).id;
+            path.add(points.get(ii).set(graph.getX(id), graph.getY(id)));
+        }
+        smoother.smooth(path, route);
+    }
+
+    /** Returns the closest goal that is neither painted nor given up on */
+    private Goal nearestOpenGoal(Vector2 pos) {
+        PhysicsController physics = gameplay.getPhysics();
+        Goal best = nearestOpenGoal(pos, physics.getGoalList(), null);
+        best = nearestOpenGoal(pos, physics.getGoal2List(), best);
+        return nearestOpenGoal(pos, physics.getGoal3List(), best);
+    }
+
+    private Goal nearestOpenGoal(Vector2 pos, List<Goal> goals, Goal best) {
+        float bestDistance = best == null ? Float.MAX_VALUE : pos.dst2(best.getX(), best.getY());
+        for (Goal goal : goals) {
+            if (goal == null || goal.isFull() || goal.isComplete() || skipped.contains(goal, true)) {
+                continue;
+            }
+            float distance = pos.dst2(goal.getX(), goal.getY());
+            if (distance < bestDistance) {
+                best = goal;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public float getDelta() { return delta; }
+
+    @Override
+    public int getButtons() { return buttons; }
+
+    @Override
+    public float getHorizontal() { return horizontal; }
+
+    @Override
+    public float getVertical() { return vertical; }
+
+    @Override
+    public int getScreenX() { return screenX; }
+
+    @Override
+    public int getScreenY() { return screenY; }
+}
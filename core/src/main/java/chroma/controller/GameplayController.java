@@ -8,8 +8,6 @@ package chroma.controller;
  * Rendering all game objects and UI messages.
  */
 
-import static chroma.model.Level.createAnimation;
-
 import chroma.model.*;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
@@ -25,6 +23,7 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 //import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
@@ -38,12 +37,12 @@ import edu.cornell.gdiac.graphics.TextLayout;
 import edu.cornell.gdiac.physics2.ObstacleSprite;
 import edu.cornell.gdiac.util.ScreenListener;
 import com.badlogic.gdx.utils.Queue;
-import com.badlogic.gdx.Preferences;
 
 //import java.awt.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 public class GameplayController implements Screen {
 
@@ -72,6 +71,8 @@ public class GameplayController implements Screen {
     private ScreenListener listener;
     private SpriteBatch batch;
     private AssetDirectory directory;
+    /** Hot-path asset handles, resolved once from the directory */
+    private AssetHandles assets;
     private JsonValue constants;
 
     // Dimensions in pixels
@@ -95,6 +96,12 @@ public class GameplayController implements Screen {
     private LevelSelector levelSelector;
 
     private List<AIController> aiControllers;
+    /** The copy for the next restart, built in the background while playing */
+    private Future<Level> pendingLevel;
+    /** The units the pending level was built with */
+    private float pendingUnits;
+    /** Sight tests for every enemy, run before each AI pass */
+    private PerceptionStage perception;
     private boolean globalChase = false;
     private long alertSoundId = -1;
     private boolean alertSoundPlaying = false;
@@ -127,6 +134,42 @@ public class GameplayController implements Screen {
     protected Rectangle bounds;
 
     private float accumulator = 0f;
+    /** Longest frame the simulation will try to catch up on */
+    private static final float MAX_FRAME_TIME = 0.25f;
+    /** Simulation step in seconds (world.stepRate in the constants, in Hz) */
+    private float fixedStep;
+    /** Most simulation steps run in one frame before the game slows down */
+    private int maxSubsteps;
+    /** Simulation steps run in the last frame */
+    private int steps;
+    /** How far the last frame got past its last step, as a fraction of a step */
+    private float stepAlpha;
+    /** Milliseconds per frame the guards' full path searches may take */
+    private float pathBudgetMs;
+    /** The guards' path searches, run a slice per frame */
+    private PathSearchQueue pathQueue;
+    /** The level's walkable grid, shared by the guards' plans */
+    private NavGraph navGraph;
+
+    /** Background clear color */
+    private static final Color CLEAR_COLOR = new Color(0.12f, 0.16f, 0.2f, 1f);
+    /** Scratch vectors for mouse projection, reused every frame */
+    private final Vector3 mouseScreen = new Vector3();
+    private final Vector2 mouseWorld = new Vector2();
+    /** Result of {@link #clampBombPos}; copy it if it must be kept */
+    private final Vector2 clampCache = new Vector2();
+    /** Scratch direction used while walking the player into the vent */
+    private final Vector2 ventDir = new Vector2();
+    /** The visible world plus a margin, where guards run at full detail */
+    private final Rectangle aiView = new Rectangle();
+    /** Margin in tiles added around the view for {@link #aiView} */
+    private static final float AI_VIEW_MARGIN = 2f;
+    /** Whether the lasers are currently switched on */
+    private boolean lasersOn = false;
+    /** Expired sprays collected during update */
+    private final List<ObstacleSprite> toRemove = new ArrayList<>();
+    /** Pause screen animation, built on first use */
+    private Animation<TextureRegion> pauseAnim;
 
     // ───── new Bomb ───────────────────────────────
     // ───── new Bomb ───────────────────────────────
@@ -147,6 +190,10 @@ public class GameplayController implements Screen {
     private float cooldownTimer = 0f;
 
     private Queue<Vector2> bombQueue = new Queue<>();
+    /** Bombs of this world, reused from throw to throw */
+    private BombPool bombPool;
+    /** Random numbers for play (guard wandering, splatters); seeded for replays */
+    private final RandomXS128 random = new RandomXS128();
     private float bombFireDelay = 0.05f;
     private float bombFireTimer = 0f;
 
@@ -173,19 +220,21 @@ public class GameplayController implements Screen {
     private boolean goal1Complete = false;
     private boolean goal2Complete = false;
     private boolean goal3Complete = false;
-    private Preferences prefs;
 
 
     public GameplayController(AssetDirectory directory, LevelSelector levelSelector) {
         this.directory = directory;
         this.constants = directory.getEntry("platform-constants", JsonValue.class);
+        this.assets = new AssetHandles(directory);
 
         this.levelSelector = levelSelector;
         // Read world configuration from JSON
         JsonValue worldConf = constants.get("world");
         this.worldWidth = worldConf.get("bounds").getFloat(0);
         this.worldHeight = worldConf.get("bounds").getFloat(1);
-        float gravityY = worldConf.getFloat("gravity", -10f);
+        this.fixedStep = 1f / worldConf.getFloat("stepRate", 120f);
+        this.maxSubsteps = worldConf.getInt("maxSubsteps", 8);
+        this.pathBudgetMs = worldConf.getFloat("pathBudgetMs", 1f);
 
 //        System.out.println(levelSelector.getCurrentLevel());
 
@@ -203,8 +252,7 @@ public class GameplayController implements Screen {
         this.height = Gdx.graphics.getHeight();
         this.units = 1.0f;
 
-        // Initialize the PhysicsController
-        physics = new PhysicsController(gravityY, numGoals, directory);
+        // The physics world is only built by reset(), while this screen is in use
         // Setup font and messages
         displayFont = directory.getEntry("shared-retro", BitmapFont.class);
         float targetWidth = Gdx.graphics.getWidth() * 0.8f;
@@ -250,11 +298,6 @@ public class GameplayController implements Screen {
         badMessage.setAlignment(TextAlign.middleCenter);
         badMessage.setFont(displayFont);
 
-        shapeRenderer = new ShapeRenderer();
-        shapeRenderer.setAutoShapeType(true);
-
-        prefs = Gdx.app.getPreferences("GameProgress");
-
         this.width = Gdx.graphics.getWidth();
         this.height = Gdx.graphics.getHeight();
 
@@ -288,25 +331,35 @@ public class GameplayController implements Screen {
         cageDropping = false;
         cageDropped = false;
 
-        // Dispose previous physics world if necessary
-        if (physics != null) {
-            physics.dispose();
+        // Dispose previous physics world and AI if necessary
+        releaseWorld();
+        if (shapeRenderer == null) {
+            shapeRenderer = new ShapeRenderer();
+            shapeRenderer.setAutoShapeType(true);
         }
         float gravityY = constants.get("world").getFloat("gravity", -10f);
 
         //level must be defined above physics to get number of goals
 
-        level = new Level(directory, units, levelSelector);
+        level = takePreparedLevel();
+        level.finishOnGlThread();
         numGoals =
             (level.getGoalTiles().size() + level.getGoal2Tiles().size() + level.getGoal3Tiles()
                 .size()) * 16;
-        physics = new PhysicsController(gravityY, numGoals, directory);
+        physics = new PhysicsController(gravityY, numGoals, assets);
         physics.getGoalList().clear();
         physics.getGoal2List().clear();
         physics.getGoal3List().clear();
+        physics.setSolidGrid(level.getSolidGrid());
+        bombPool = new BombPool(physics, assets, units, random);
         complete = false;
         failed = false;
         countdown = -1;
+        // Start exactly like every other play of the level, so replays match
+        accumulator = 0f;
+        cameraZoom = ZOOM_DEFAULT;
+        aimRangeCurrent = RANGE_MIN;
+        planned.clear();
         targetZoom = ZOOM_DEFAULT;
         bombState = BombSkillState.IDLE;
         goal1Complete = false;
@@ -375,21 +428,109 @@ public class GameplayController implements Screen {
             physics.createGoal(new Vector2(x, y),4,0.125f,units,constants,3);
         }
 
-        // Initialize AI
+        // Initialize AI, all guards planning over one graph of the walls and machines
         aiControllers = new ArrayList<>();
+        navGraph = level.getNavGraph();
+        pathQueue = new PathSearchQueue(navGraph, pathBudgetMs);
         Texture lightTexture = directory.getEntry("enemyCameraLight", Texture.class);
         for (Enemy enemy : level.getEnemies()) {
             if (enemy.getType() != Enemy.Type.CAMERA1 && enemy.getType() != Enemy.Type.CAMERA2) { // Only add physical enemies
                 physics.addObject(enemy);
             }
-            aiControllers.add(new AIController(enemy, this, physics, level, lightTexture));
+            aiControllers.add(new AIController(enemy, this, physics, level, navGraph, pathQueue, lightTexture));
         }
 
         for (Laser laser : level.getLasers()) {
             physics.addObject(
-                laser);       // builds the body via activatePhysics(world) :contentReference[oaicite:0]{index=0}&#8203;:contentReference[oaicite:1]{index=1}
+                laser);       // builds the body via activatePhysics(world)
             laser.toggle(false);
         }
+        lasersOn = false;
+        perception = new PerceptionStage(physics.getWorld(), level.getSolidGrid(), player);
+
+        // Build the copy for the next restart while this one is played
+        prepareLevel();
+    }
+
+    /**
+     * Releases everything this screen only needs while it is played: the
+     * physics world, the AI controllers, the debug renderer and the level,
+     * including the copy prepared for a restart. Only the level selector's
+     * index is kept; the next {@link #reset()} builds the level again. Call
+     * this when switching away from the screen.
+     */
+    public void suspend() {
+        releaseWorld();
+        level = null;
+        player = null;
+        if (pendingLevel != null) {
+            pendingLevel.cancel(false);
+            pendingLevel = null;
+        }
+        if (bombQueue != null) {
+            bombQueue.clear();
+        }
+        if (shapeRenderer != null) {
+            shapeRenderer.dispose();
+            shapeRenderer = null;
+        }
+    }
+
+    /** Returns true if this screen has no live physics world */
+    public boolean isSuspended() {
+        return physics == null;
+    }
+
+    /** Disposes the physics world and the AI controllers that act in it */
+    private void releaseWorld() {
+        if (aiControllers != null) {
+            for (AIController ai : aiControllers) {
+                ai.dispose();
+            }
+            aiControllers.clear();
+        }
+        perception = null;
+        pathQueue = null;
+        navGraph = null;
+        bombPool = null;
+        if (physics != null) {
+            physics.dispose();
+            physics = null;
+        }
+    }
+
+    /**
+     * Starts building a fresh copy of this controller's level in the
+     * background, unless one is already on the way. The next call to
+     * {@link #reset()} then only has to finish it on the render thread.
+     */
+    private void prepareLevel() {
+        if (pendingLevel == null || pendingUnits != units) {
+            pendingLevel = LevelLoader.prepare(directory, units, levelSelector);
+            pendingUnits = units;
+        }
+    }
+
+    /** Takes the prepared level, waiting for it or building it if necessary */
+    private Level takePreparedLevel() {
+        prepareLevel();
+        Level prepared = LevelLoader.await(pendingLevel);
+        pendingLevel = null;
+        return prepared;
+    }
+
+    /**
+     * Lets every guard pick its level of detail from the player's position
+     * and what the camera shows.
+     */
+    private void updateAIDetail() {
+        float halfWidth = camera.viewportWidth * camera.zoom / (2 * units) + AI_VIEW_MARGIN;
+        float halfHeight = camera.viewportHeight * camera.zoom / (2 * units) + AI_VIEW_MARGIN;
+        aiView.set(camera.position.x / units - halfWidth, camera.position.y / units - halfHeight,
+            2 * halfWidth, 2 * halfHeight);
+        for (AIController ai : aiControllers) {
+            ai.chooseDetail(aiView);
+        }
     }
 
     /**
@@ -399,8 +540,6 @@ public class GameplayController implements Screen {
      */
     private boolean preUpdate(float dt) {
         InputController input = InputController.getInstance();
-        // Convert screen→world for mouse, etc.
-        input.sync(bounds, scale);
 
 //        if (input.didDebug()) {
 //            debug = !debug;
@@ -456,7 +595,7 @@ public class GameplayController implements Screen {
      */
     private void update(float dt) {
         if (gameState == GameState.WON || gameState == GameState.LOST) {
-            updateCamera();
+            updateCamera(dt);
             return; // Skip updates
         }
 
@@ -469,6 +608,8 @@ public class GameplayController implements Screen {
 
         // Update AI enemies
         boolean anyChasing = false;
+        updateAIDetail();
+        perception.sense(aiControllers);
         for (AIController ai : aiControllers) {
             ai.update(dt);
             if (ai.getState() == AIController.State.CHASE) {
@@ -477,6 +618,7 @@ public class GameplayController implements Screen {
         }
         // Update AI enemies, and turn lasers on if any are ALERT or CHASE
         boolean anyThreat = false;
+        perception.sense(aiControllers);
         for (AIController ai : aiControllers) {
             ai.update(dt);
             AIController.State s = ai.getState();
@@ -504,7 +646,9 @@ public class GameplayController implements Screen {
             // Update the state of aiming
             player.setAiming(input.didAim() && player.hasEnoughPaint(BOMB_SUBSEQUENT_COST));
         }
-        for (Bomb b : level.getBombs()) {
+        List<Bomb> bombs = level.getBombs();
+        for (int ii = bombs.size() - 1; ii >= 0; ii--) {
+            Bomb b = bombs.get(ii);
             b.update(dt);
             // If you want to check collisions or do "landing" logic, do it here:
             if (b.isExpired()) {
@@ -572,17 +716,21 @@ public class GameplayController implements Screen {
                 level.getGoal3Collisions().setComplete();
             }
         }
-        for (Laser laser : level.getLasers()) {
-            laser.toggle(anyThreat);
+        // Lasers only change when the threat state does
+        if (anyThreat != lasersOn) {
+            lasersOn = anyThreat;
+            for (Laser laser : level.getLasers()) {
+                laser.toggle(lasersOn);
+            }
         }
         // Fire paint spray
         if (player.isShooting() && player.hasEnoughPaint(splatterCost)) {
             // Get mouse position in screen space.
-            Vector3 screenMouse = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+            Vector3 screenMouse = mouseScreen.set(input.getScreenX(), input.getScreenY(), 0);
             // Unproject to obtain world coordinates (in pixel space).
             camera.unproject(screenMouse);
             // Convert pixel coordinates to Box2D world units.
-            Vector2 mouseWorld = new Vector2(screenMouse.x / units, screenMouse.y / units);
+            mouseWorld.set(screenMouse.x / units, screenMouse.y / units);
             // Get avatar position.
             Vector2 avatarPos = player.getObstacle().getPosition();
             // Compute angle (in radians) from avatar to mouse.
@@ -593,8 +741,8 @@ public class GameplayController implements Screen {
             player.setPaint(player.getPaint() - splatterCost);
         }
 
-        List<ObstacleSprite> toRemove = new ArrayList<>();
-        for (ObstacleSprite obj : physics.objects) {
+        toRemove.clear();
+        for (ObstacleSprite obj : physics.getUpdateList()) {
             if (obj instanceof Spray) {
                 Spray spray = (Spray) obj;
                 spray.update(dt);
@@ -606,9 +754,9 @@ public class GameplayController implements Screen {
         for (ObstacleSprite obj : toRemove) {
             physics.removeObject(obj);
         }
-        physics.objects.removeAll(toRemove);
+        toRemove.clear();
         updateBombQueue(dt);
-        updateCamera();
+        updateCamera(dt);
     }
 
     /**
@@ -631,7 +779,7 @@ public class GameplayController implements Screen {
             bombX = startX + dx * scale;
             bombY = startY + dy * scale;
         }
-        return new Vector2(bombX, bombY);
+        return clampCache.set(bombX, bombY);
     }
 
     private Vector2 clampToValidBombArea(Vector2 worldPos) {
@@ -658,10 +806,11 @@ public class GameplayController implements Screen {
     }
 
     /**
-     * Removes a bomb from the physics world.
+     * Takes a bomb out of play and returns it to the pool.
      */
-    public void removeBomb(ObstacleSprite bomb) {
-        bomb.getObstacle().markRemoved(true);
+    public void removeBomb(Bomb bomb) {
+        level.getBombs().remove(bomb);
+        bombPool.free(bomb);
     }
 
     private void handleBombSkill(float dt) {
@@ -746,7 +895,8 @@ public class GameplayController implements Screen {
     private void startPainting() {
         planned.clear();
 
-        Vector3 raw = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+        InputController input = InputController.getInstance();
+        Vector3 raw = mouseScreen.set(input.getScreenX(), input.getScreenY(), 0);
         camera.unproject(raw);
         Vector2 firstPix = clampBombPos(raw, aimRangeCurrent);
 
@@ -771,7 +921,8 @@ public class GameplayController implements Screen {
      * decide if a new region is selected
      */
     private void updatePainting() {
-        Vector3 raw = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+        InputController input = InputController.getInstance();
+        Vector3 raw = mouseScreen.set(input.getScreenX(), input.getScreenY(), 0);
         camera.unproject(raw);
         Vector2 clampedScreen = clampBombPos(raw, aimRangeCurrent);
 
@@ -809,6 +960,8 @@ public class GameplayController implements Screen {
             bombQueue.addLast(target);
         }
         planned.clear();
+        // Build any bodies the volley needs now, not one per throw
+        bombPool.reserve(bombQueue.size);
         bombFireTimer = bombFireDelay;
         bombState = BombSkillState.FIRING;
     }
@@ -820,28 +973,7 @@ public class GameplayController implements Screen {
                 Vector2 target = bombQueue.removeFirst();
 
                 Vector2 playerPos = player.getObstacle().getPosition();
-
-                float speed = 6f;
-                Vector2 vel = new Vector2(target).sub(playerPos).nor().scl(speed);
-                Texture bombTex = directory.getEntry("platform-bullet", Texture.class);
-                bombTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-                Texture bulletTex = directory.getEntry("platform-bullet", Texture.class);
-                bulletTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-//                Texture splatterTex = directory.getEntry("bomb-splatter", Texture.class);
-                Texture splatterTex = directory.getEntry("bomb_fade", Texture.class);
-                Animation<TextureRegion> fadeAnim   = createAnimation(splatterTex,  12, 0.6f);
-                splatterTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-                Sound splatterSound = directory.getEntry("bomb", Sound.class);
-                JsonValue bombData = constants.get("bomb");
-                Bomb bomb = new Bomb(units, bombData,
-                    playerPos, vel, target,
-                    bulletTex, splatterTex,
-                    splatterSound, fadeAnim);
-                bomb.setTexture(bombTex);
-                bomb.getObstacle().setName("bomb");
-
-                level.getBombs().add(bomb);
-                physics.addObject(bomb);
+                level.getBombs().add(bombPool.launch(playerPos, target));
 
                 bombFireTimer = bombFireDelay;
             }
@@ -903,7 +1035,7 @@ public class GameplayController implements Screen {
                                                 waitingForDoorAnim = true;
                                         } else {
                                            // move toward center
-                                                Vector2 dir = center.cpy().sub(pos).nor();
+                                                Vector2 dir = ventDir.set(center).sub(pos).nor();
                                             cham.getObstacle().getBody().setLinearVelocity(dir.scl(5.0f));
                                         }
                                 }
@@ -1058,9 +1190,9 @@ public class GameplayController implements Screen {
         batch.draw(resTex, width/2 - width/12, height/2 - buttonDrawHeight * 6/ 2, width/6, width/6 * buttonRatio);
 
 // Update rectangles to match the drawn texture positions
-        menuButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight / 2, buttonDrawWidth, buttonDrawHeight);
-        nextButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight * 3.5f / 2, buttonDrawWidth, buttonDrawHeight);
-        retryButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight * 6 / 2, buttonDrawWidth, buttonDrawHeight);
+        menuButton = placeBound(menuButton, width / 2 - width / 12, height / 2 - buttonDrawHeight / 2, buttonDrawWidth, buttonDrawHeight);
+        nextButton = placeBound(nextButton, width / 2 - width / 12, height / 2 - buttonDrawHeight * 3.5f / 2, buttonDrawWidth, buttonDrawHeight);
+        retryButton = placeBound(retryButton, width / 2 - width / 12, height / 2 - buttonDrawHeight * 6 / 2, buttonDrawWidth, buttonDrawHeight);
 
 //        drawButton(batch, retryButton);
 //        drawButton(batch, menuButton);
@@ -1091,8 +1223,8 @@ public class GameplayController implements Screen {
         // Optional: text overlay if needed
         // batch.drawText(badMessage, width / 2, height / 2);
 
-        menuButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight / 2, buttonDrawWidth, buttonDrawHeight);
-        retryButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight * 3.3f / 2, buttonDrawWidth, buttonDrawHeight);
+        menuButton = placeBound(menuButton, width / 2 - width / 12, height / 2 - buttonDrawHeight / 2, buttonDrawWidth, buttonDrawHeight);
+        retryButton = placeBound(retryButton, width / 2 - width / 12, height / 2 - buttonDrawHeight * 3.3f / 2, buttonDrawWidth, buttonDrawHeight);
 
 //        drawButton(batch, retryButton);
 //        drawButton(batch, menuButton);
@@ -1126,9 +1258,9 @@ public class GameplayController implements Screen {
         batch.draw(resumeTex, width/2 - width/12, height/2 - buttonDrawHeight * 3.5f/2, width/6, width/6 * buttonRatio);
 
 // Update rectangles to match the drawn texture positions
-        menuButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight/2, buttonDrawWidth, buttonDrawHeight);
-        retryButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight * 6/2, buttonDrawWidth, buttonDrawHeight);
-        resumeButton = new Bound(width / 2 - width / 12, height / 2 - buttonDrawHeight * 3.5f/2, buttonDrawWidth, buttonDrawHeight);
+        menuButton = placeBound(menuButton, width / 2 - width / 12, height / 2 - buttonDrawHeight/2, buttonDrawWidth, buttonDrawHeight);
+        retryButton = placeBound(retryButton, width / 2 - width / 12, height / 2 - buttonDrawHeight * 6/2, buttonDrawWidth, buttonDrawHeight);
+        resumeButton = placeBound(resumeButton, width / 2 - width / 12, height / 2 - buttonDrawHeight * 3.5f/2, buttonDrawWidth, buttonDrawHeight);
 
 //        drawButton(batch, retryButton);
 //        drawButton(batch, menuButton);
@@ -1140,7 +1272,7 @@ public class GameplayController implements Screen {
      */
     private void draw(float dt) {
 
-        ScreenUtils.clear(new Color(0.12f, 0.16f, 0.2f, 1f));
+        ScreenUtils.clear(CLEAR_COLOR);
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
 
@@ -1228,8 +1360,7 @@ public class GameplayController implements Screen {
         }
         batch.flush();
         if (levelSelector.getCurrentLevel() == 1) {
-            Texture hintTex = directory.getEntry("tutorialhints_walk", Texture.class);
-            hintTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            Texture hintTex = assets.hintWalk;
             float worldX = 1f * units;
             float worldY = 10f * units;
 
@@ -1239,8 +1370,7 @@ public class GameplayController implements Screen {
                 hintTex.getHeight());
         }
         if (levelSelector.getCurrentLevel() == 3) {
-            Texture hintTex = directory.getEntry("tutorialhints_goal", Texture.class);
-            hintTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            Texture hintTex = assets.hintGoal;
             float worldX = 2f * units;
             float worldY = 6f * units;
 
@@ -1250,8 +1380,7 @@ public class GameplayController implements Screen {
                 hintTex.getHeight());
         }
         if (levelSelector.getCurrentLevel() == 2) {
-            Texture hintTex = directory.getEntry("tutorialhints_spray", Texture.class);
-            hintTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            Texture hintTex = assets.hintSpray;
             float worldX = 2f * units;
             float worldY = 14f * units;
 
@@ -1262,8 +1391,7 @@ public class GameplayController implements Screen {
         }
 
         if (levelSelector.getCurrentLevel() == 4) {
-            Texture hintTex = directory.getEntry("tutorialhints_bomb", Texture.class);
-            hintTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            Texture hintTex = assets.hintBomb;
             float worldX = 2f * units;
             float worldY = 8f * units;
 
@@ -1360,13 +1488,14 @@ public class GameplayController implements Screen {
         }
 
         if (bombState == BombSkillState.PAINTING) {
-            Texture ghost = directory.getEntry("aiming-range", Texture.class);
+            Texture ghost = assets.aimingRange;
 //            ghost.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-            float s = constants.get("bomb").getFloat("size") * units;
+            float s = assets.bombData.getFloat("size") * units;
             for (Vector2 phys : planned) {
                 batch.draw(ghost, phys.x * units - s / 2, phys.y * units - s / 2, s, s);
             }
-            Vector3 raw = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+            InputController input = InputController.getInstance();
+            Vector3 raw = mouseScreen.set(input.getScreenX(), input.getScreenY(), 0);
             camera.unproject(raw);
             Vector2 curPix = clampBombPos(raw, aimRangeCurrent);
             batch.draw(ghost, curPix.x - s / 2, curPix.y - s / 2, s, s);
@@ -1408,38 +1537,34 @@ public class GameplayController implements Screen {
         }
 
         // Draw the paint container (UI) after objects
-        Texture vig = directory.getEntry("vignette", Texture.class);
-        drawVignette(vig);
+        drawVignette(assets.vignette);
 
-        Texture paintBodyTex = directory.getEntry("paint-body", Texture.class);
-        Texture paintTopTex = directory.getEntry("paint-top", Texture.class);
-        Texture paintOverlayTex = directory.getEntry("paint-overlay", Texture.class);
+        Texture paintBodyTex = assets.paintBody;
+        Texture paintTopTex = assets.paintTop;
+        Texture paintOverlayTex = assets.paintOverlay;
 //        barTex.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
 //        barOverlayTex.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
         drawPaintContainer(paintBodyTex, paintTopTex, paintOverlayTex);
 
-        Texture youWinTexture = directory.getEntry("win-screen", Texture.class);
-        Texture youLoseTexture =  directory.getEntry("lose-screen", Texture.class);
-        Texture restartTex = directory.getEntry("restart", Texture.class);
-        Texture menuTex = directory.getEntry("menu", Texture.class);
-        Texture nextlabTex = directory.getEntry("next-lab", Texture.class);
-        Texture resumeTex = directory.getEntry("resume", Texture.class);
+        Texture youWinTexture = assets.winScreen;
+        Texture youLoseTexture = assets.loseScreen;
+        Texture restartTex = assets.restart;
+        Texture menuTex = assets.menu;
+        Texture nextlabTex = assets.nextLab;
+        Texture resumeTex = assets.resume;
 //        youWinTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
 //        youLoseTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
 
-        Texture pauseSheet = directory.getEntry("pause-screen", Texture.class);
-        pauseSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        Animation<TextureRegion> pauseAnim = Level.createAnimation(pauseSheet, 7, 3f);
+        if (pauseAnim == null) {
+            pauseAnim = Level.createAnimation(assets.pauseSheet, 7, 3f);
+        }
         animTime += dt;
         TextureRegion pauseFrame = pauseAnim.getKeyFrame(animTime, false);
 
         if (gameState == GameState.WON) {
             drawWinScreen(youWinTexture, restartTex, menuTex, nextlabTex);
             int levelNum = levelSelector.getCurrentLevel();
-            if (!prefs.getBoolean("level" + levelNum + "Completed", false)) {
-                prefs.putBoolean("level" + levelNum + "Completed", true);
-                prefs.flush();
-            }
+            ProgressStore.getInstance().markCompleted(levelNum);
 
         } else if (gameState == GameState.LOST) {
             // only pop up the lose UI once we've zoomed all the way in
@@ -1490,24 +1615,31 @@ public class GameplayController implements Screen {
             pct = 100;
         }
 
-        Texture goalIncompleteIcon = directory.getEntry("goal_unpainted", Texture.class);
-        Texture goalCompleteIcon = directory.getEntry("goal_painted", Texture.class);
-        drawGoalUI(goalIncompleteIcon, goalCompleteIcon);
+        drawGoalUI(assets.goalUnpainted, assets.goalPainted);
 
         batch.end();
     }
 
+    /**
+     * Re-centers the camera on the (interpolated) player position for drawing.
+     */
+    private void followPlayer() {
+        Vector2 pos = player.getDrawPosition();
+        camera.position.set(pos.x * units, pos.y * units, 0);
+        camera.update();
+    }
+
     /**
      * Keeps the camera centered on the player and guarantees that the visible world area stays the
      * same even when the window is resized.
      */
-    private void updateCamera() {
+    private void updateCamera(float dt) {
         Vector2 pos = player.getObstacle().getPosition();
         camera.position.set(pos.x * units, pos.y * units, 0);
 
         // smooth‐lerp to targetZoom on both zoom in and zoom out
         cameraZoom += (targetZoom - cameraZoom) *
-            Math.min(1, ZOOM_LERP * Gdx.graphics.getDeltaTime());
+            Math.min(1, ZOOM_LERP * dt);
 
     /* -----------------------------------------------
        Window‑size compensation
@@ -1522,6 +1654,10 @@ public class GameplayController implements Screen {
         public float x, y, width, height;
 
         public Bound(float x, float y, float width, float height) {
+            set(x, y, width, height);
+        }
+
+        public void set(float x, float y, float width, float height) {
             this.x = x;
             this.y = y;
             this.width = width;
@@ -1535,6 +1671,17 @@ public class GameplayController implements Screen {
         }
     }
 
+    /**
+     * Moves the given button bound, creating it the first time it is needed.
+     */
+    private Bound placeBound(Bound bound, float x, float y, float width, float height) {
+        if (bound == null) {
+            return new Bound(x, y, width, height);
+        }
+        bound.set(x, y, width, height);
+        return bound;
+    }
+
     /**
      * The main render loop.
      */
@@ -1543,10 +1690,35 @@ public class GameplayController implements Screen {
         if (!active) {
             return;
         }
-        if (!preUpdate(delta)) {
+        if (!advance(delta)) {
             return;
         }
 
+        // Draw moving bodies (and the camera) between the last two steps
+        physics.interpolate(stepAlpha);
+        followPlayer();
+        draw(stepAlpha);
+    }
+
+    /**
+     * Plays a frame without drawing it: reads the input, steps the world as
+     * often as the frame time calls for and runs the guards' path searches.
+     * {@link #render(float)} calls this before drawing; a headless
+     * simulation calls it on its own.
+     *
+     * @param delta the time since the last frame in seconds
+     * @return false if the frame should not be drawn
+     */
+    public boolean advance(float delta) {
+        InputController input = InputController.getInstance();
+        // Convert screen→world for mouse, etc.
+        input.sync(bounds, scale, delta);
+        // Recorded input is played back with its recorded frame times
+        delta = input.getDelta();
+        if (!preUpdate(delta)) {
+            return false;
+        }
+
 //        if (gameState != GameState.PLAYING && Gdx.input.justTouched()) {
 //            Vector3 touch = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
 //            camera.unproject(touch); // if you’re using a camera
@@ -1560,35 +1732,53 @@ public class GameplayController implements Screen {
 //                listener.exitScreen(this, EXIT_NEXT);
 //            }
 //        }
-        if (gameState != GameState.PLAYING && Gdx.input.justTouched()) {
-            Vector3 touch = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+        if (gameState != GameState.PLAYING && input.didTouch()) {
+            Vector3 touch = mouseScreen.set(input.getScreenX(), input.getScreenY(), 0);
             uiCamera.unproject(touch); // if you’re using a camera
             if (retryButton != null && retryButton.contains(touch.x, touch.y)) {
                 reset();
-                return;
+                return false;
             } else if (menuButton != null && menuButton.contains(touch.x, touch.y)) {
                 listener.exitScreen(this, EXIT_MAP);
-                return;
+                return false;
             } else if (gameState == GameState.WON && nextButton != null && nextButton.contains(touch.x, touch.y)) {
                 listener.exitScreen(this, EXIT_NEXT);
-                return;
+                return false;
             } else if (gameState == GameState.PAUSED && resumeButton != null && resumeButton.contains(touch.x, touch.y)) {
                 gameState = GameState.PLAYING;
-                return;
+                return false;
             }
         }
 
-        float frameTime = Math.min(delta, 0.25f);
+        float frameTime = Math.min(delta, MAX_FRAME_TIME);
         accumulator += frameTime;
-        final float FIXED_TIMESTEP = 1 / 120f;
 
-        while (accumulator >= FIXED_TIMESTEP) {
-            update(FIXED_TIMESTEP);
-            postUpdate(FIXED_TIMESTEP);
-            accumulator -= FIXED_TIMESTEP;
+        steps = 0;
+        while (accumulator >= fixedStep && steps < maxSubsteps) {
+            update(fixedStep);
+            postUpdate(fixedStep);
+            accumulator -= fixedStep;
+            steps++;
         }
-        float alpha = accumulator / FIXED_TIMESTEP;
-        draw(alpha);
+        // Out of step budget: drop the backlog so the game slows down
+        // instead of falling further behind every frame
+        if (accumulator >= fixedStep) {
+            accumulator %= fixedStep;
+        }
+        stepAlpha = accumulator / fixedStep;
+
+        // Sounds requested by any of this frame's steps
+        if (steps > 0) {
+            AudioBus.getInstance().flush();
+        }
+        // Path searches the guards asked for, within this frame's budget.
+        // Recorded play finishes them now, so it plays back the same.
+        if (input.isScripted()) {
+            pathQueue.finish();
+        } else {
+            pathQueue.run();
+        }
+        return true;
     }
 
     // Screen interface methods
@@ -1600,6 +1790,8 @@ public class GameplayController implements Screen {
     @Override
     public void hide() {
         active = false;
+        // Nothing requested since the last step, so this stops the footsteps
+        AudioBus.getInstance().flush();
     }
 
     @Override
@@ -1643,8 +1835,7 @@ public class GameplayController implements Screen {
 
     @Override
     public void dispose() {
-        physics.dispose();
-        shapeRenderer.dispose();
+        suspend();
     }
 
     public void setScreenListener(ScreenListener listener) {
@@ -1700,4 +1891,67 @@ public class GameplayController implements Screen {
     public float getUnits() {
         return units;
     }
+
+    /** Returns the simulation step in seconds */
+    public float getFixedStep() {
+        return fixedStep;
+    }
+
+    /** Returns the number of simulation steps the last frame ran */
+    public int getStepCount() {
+        return steps;
+    }
+
+    /** Returns true once the level is won or lost */
+    public boolean isLevelOver() {
+        return gameState == GameState.WON || gameState == GameState.LOST;
+    }
+
+    /** Returns the number of bodies in the physics world */
+    public int getBodyCount() {
+        return physics == null ? 0 : physics.getWorld().getBodyCount();
+    }
+
+    /** Returns true once the level is won */
+    public boolean isLevelWon() {
+        return gameState == GameState.WON;
+    }
+
+    /** Returns the player, or null while no level is built */
+    public Chameleon getPlayer() {
+        return physics == null ? null : player;
+    }
+
+    /** Returns the level being played */
+    public Level getLevel() {
+        return level;
+    }
+
+    /** Returns the physics of the level, or null while no level is built */
+    public PhysicsController getPhysics() {
+        return physics;
+    }
+
+    /** Returns the level's nav graph, or null while no level is built */
+    public NavGraph getNavGraph() {
+        return navGraph;
+    }
+
+    /** Returns true while a guard is alerted or chasing, which turns the lasers on */
+    public boolean isAlarmed() {
+        return lasersOn;
+    }
+
+    /** Returns the random numbers play uses */
+    public RandomXS128 getRandom() {
+        return random;
+    }
+
+    /**
+     * Seeds the random numbers play uses. Play with the same seed and input
+     * turns out the same.
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
 }
@@ -36,19 +36,21 @@ public class InputController {
     private static final float GP_MAX_SPEED  = 10.0f;
     private static final float GP_THRESHOLD  = 0.01f;
 
-    /** The singleton instance of the input controller */
-    private static InputController theController = null;
+    /**
+     * The instance of the input controller for each thread. The game only
+     * uses the render thread; a headless simulation runs each level on its
+     * own thread, with its own input.
+     */
+    private static final ThreadLocal<InputController> theController =
+        ThreadLocal.withInitial(InputController::new);
 
     /**
-     * Returns the singleton instance of the input controller
+     * Returns the calling thread's instance of the input controller
      *
-     * @return the singleton instance of the input controller
+     * @return the calling thread's instance of the input controller
      */
     public static InputController getInstance() {
-        if (theController == null) {
-            theController = new InputController();
-        }
-        return theController;
+        return theController.get();
     }
 
     // Fields to manage buttons
@@ -109,6 +111,37 @@ public class InputController {
     /** Whether the mouse right button was pressed. */
     private boolean rightPressed;
     private boolean rightPrevious;
+    /** Whether the mouse left button is held down. */
+    private boolean leftHeld;
+    /** Whether the screen was touched (clicked) this frame. */
+    private boolean touched;
+    /** The pointer position in screen pixels */
+    private int screenX;
+    private int screenY;
+    /** The frame time in seconds */
+    private float delta;
+
+    /** Records the input of each frame, if set */
+    private InputRecorder recorder;
+    /** Plays back recorded or scripted input instead of reading the devices, if set */
+    private InputScript replay;
+
+    // Bits for the buttons in a recording or script
+    static final int BIT_PRIME  = 1;
+    static final int BIT_SECOND = 1 << 1;
+    static final int BIT_RESET  = 1 << 2;
+    static final int BIT_DEBUG  = 1 << 3;
+    static final int BIT_NEXT   = 1 << 4;
+    static final int BIT_PREV   = 1 << 5;
+    static final int BIT_MENU   = 1 << 6;
+    static final int BIT_PAUSE  = 1 << 7;
+    static final int BIT_EXIT   = 1 << 8;
+    static final int BIT_SHIFT  = 1 << 9;
+    static final int BIT_SKILL  = 1 << 10;
+    static final int BIT_LEFT   = 1 << 11;
+    static final int BIT_RIGHT  = 1 << 12;
+    static final int BIT_HELD   = 1 << 13;
+    static final int BIT_TOUCH  = 1 << 14;
 
 
 
@@ -156,6 +189,29 @@ public class InputController {
         return mousecache.set(mousePos);
     }
 
+    /** Returns the pointer's x in screen pixels */
+    public int getScreenX() {
+        return screenX;
+    }
+
+    /** Returns the pointer's y in screen pixels */
+    public int getScreenY() {
+        return screenY;
+    }
+
+    /** Returns true if the screen was touched (clicked) this frame */
+    public boolean didTouch() {
+        return touched;
+    }
+
+    /**
+     * Returns the time since the last frame in seconds. When input is played
+     * back this is the recorded frame time, not the real one.
+     */
+    public float getDelta() {
+        return delta;
+    }
+
     /**
      * Returns true if the primary action button was pressed.
      *
@@ -295,6 +351,58 @@ public class InputController {
         mousecache = new Vector2();
     }
 
+    /**
+     * Records every frame of input from now on, replacing any earlier
+     * recorder. The recorder is saved by {@link #stopRecording()}.
+     */
+    public void startRecording(InputRecorder recorder) {
+        stopRecording();
+        this.recorder = recorder;
+        release();
+    }
+
+    /** Saves and drops the recorder, if there is one */
+    public void stopRecording() {
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
+        }
+    }
+
+    /**
+     * Plays back a recording, or lets a bot play, instead of reading the
+     * devices; goes back to the devices if replay is null. Once the script
+     * runs out, every button reads as released.
+     */
+    public void startReplay(InputScript replay) {
+        this.replay = replay;
+        release();
+    }
+
+    /**
+     * Lets go of every button, so the first frame of a recording or replay
+     * does not depend on what came before it.
+     */
+    private void release() {
+        primePressed = false;
+        secondPressed = false;
+        resetPressed = false;
+        debugPressed = false;
+        nextPressed = false;
+        prevPressed = false;
+        menuPressed = false;
+        pausePressed = false;
+        exitPressed = false;
+        skillPressed = false;
+        leftPressed = false;
+        rightPressed = false;
+    }
+
+    /** Returns true if the input is being recorded, played back or scripted */
+    public boolean isScripted() {
+        return recorder != null || replay != null;
+    }
+
     /**
      * Syncs the keyboard to the current animation frame.
      *
@@ -304,8 +412,9 @@ public class InputController {
      *
      * @param bounds The input bounds for the crosshair.
      * @param scale  The drawing scale
+     * @param delta  The time since the last frame in seconds
      */
-    public void sync(Rectangle bounds, Vector2 scale) {
+    public void sync(Rectangle bounds, Vector2 scale, float delta) {
         // Copy state from last animation frame
         // Helps us ignore buttons that are held down
         primePrevious  = primePressed;
@@ -323,6 +432,12 @@ public class InputController {
 
 
 
+        if (replay != null) {
+            readReplay(bounds, scale);
+            return;
+        }
+        this.delta = delta;
+
         // Check to see if a GamePad is connected
         if (xbox != null && xbox.isConnected()) {
             readGamepad(bounds, scale);
@@ -330,6 +445,69 @@ public class InputController {
         } else {
             readKeyboard(bounds, scale, false);
         }
+
+        if (recorder != null) {
+            // Play on what the recording can store, so the replay matches
+            horizontal = InputRecorder.quantize(horizontal);
+            vertical = InputRecorder.quantize(vertical);
+            recorder.writeTick(delta, getButtons(), horizontal, vertical, screenX, screenY);
+        }
+    }
+
+    /** Returns the buttons held this frame, as bits */
+    private int getButtons() {
+        int bits = 0;
+        if (primePressed)  bits |= BIT_PRIME;
+        if (secondPressed) bits |= BIT_SECOND;
+        if (resetPressed)  bits |= BIT_RESET;
+        if (debugPressed)  bits |= BIT_DEBUG;
+        if (nextPressed)   bits |= BIT_NEXT;
+        if (prevPressed)   bits |= BIT_PREV;
+        if (menuPressed)   bits |= BIT_MENU;
+        if (pausePressed)  bits |= BIT_PAUSE;
+        if (exitPressed)   bits |= BIT_EXIT;
+        if (shiftPressed)  bits |= BIT_SHIFT;
+        if (skillPressed)  bits |= BIT_SKILL;
+        if (leftPressed)   bits |= BIT_LEFT;
+        if (rightPressed)  bits |= BIT_RIGHT;
+        if (leftHeld)      bits |= BIT_HELD;
+        if (touched)       bits |= BIT_TOUCH;
+        return bits;
+    }
+
+    /**
+     * Reads the next frame of a recording or script. Past its end, every
+     * button is released and the frame time stays at the last one.
+     */
+    private void readReplay(Rectangle bounds, Vector2 scale) {
+        int bits = 0;
+        if (replay.nextTick()) {
+            delta = replay.getDelta();
+            bits = replay.getButtons();
+            horizontal = replay.getHorizontal();
+            vertical = replay.getVertical();
+            screenX = replay.getScreenX();
+            screenY = replay.getScreenY();
+        } else {
+            horizontal = 0;
+            vertical = 0;
+        }
+        primePressed  = (bits & BIT_PRIME) != 0;
+        secondPressed = (bits & BIT_SECOND) != 0;
+        resetPressed  = (bits & BIT_RESET) != 0;
+        debugPressed  = (bits & BIT_DEBUG) != 0;
+        nextPressed   = (bits & BIT_NEXT) != 0;
+        prevPressed   = (bits & BIT_PREV) != 0;
+        menuPressed   = (bits & BIT_MENU) != 0;
+        pausePressed  = (bits & BIT_PAUSE) != 0;
+        exitPressed   = (bits & BIT_EXIT) != 0;
+        shiftPressed  = (bits & BIT_SHIFT) != 0;
+        skillPressed  = (bits & BIT_SKILL) != 0;
+        leftPressed   = (bits & BIT_LEFT) != 0;
+        rightPressed  = (bits & BIT_RIGHT) != 0;
+        leftHeld      = (bits & BIT_HELD) != 0;
+        touched       = (bits & BIT_TOUCH) != 0;
+        locatePointer(bounds, scale);
     }
 
     /**
@@ -393,6 +571,8 @@ public class InputController {
         skillPressed = (secondary && skillPressed) || Gdx.input.isKeyPressed(Input.Keys.SHIFT_LEFT);
         leftPressed  = (secondary && leftPressed)  || Gdx.input.isButtonJustPressed(Input.Buttons.LEFT);
         rightPressed = (secondary && rightPressed) || Gdx.input.isButtonJustPressed(Input.Buttons.RIGHT);
+        leftHeld = Gdx.input.isButtonPressed(Input.Buttons.LEFT);
+        touched = Gdx.input.justTouched();
 
 
         // Directional controls
@@ -412,11 +592,18 @@ public class InputController {
             vertical -= 1.0f;
         }
 
-        crosshair.set(Gdx.input.getX(), Gdx.input.getY());
+        screenX = Gdx.input.getX();
+        screenY = Gdx.input.getY();
+        locatePointer(bounds, scale);
+    }
+
+    /** Moves the crosshair and mouse position to the pointer */
+    private void locatePointer(Rectangle bounds, Vector2 scale) {
+        crosshair.set(screenX, screenY);
         crosshair.scl(1/scale.x,-1/scale.y);
         crosshair.y += bounds.height;
 
-        mousePos.set(Gdx.input.getX(), Gdx.input.getY());
+        mousePos.set(screenX, screenY);
         mousePos.scl(1/scale.x,-1/scale.y);
         mousePos.y += bounds.height;
         clampPosition(bounds);
@@ -424,7 +611,7 @@ public class InputController {
 
     /** true while the mouse left button is being held down */
     public boolean isLeftHeld() {
-        return Gdx.input.isButtonPressed(Input.Buttons.LEFT);
+        return leftHeld;
     }
 
 
@@ -0,0 +1,117 @@
+package chroma.controller;
+
+import com.badlogic.gdx.Gdx;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * InputRecorder
+ * -------------
+ * Records the player's input for one level, a frame at a time, so it can be
+ * played back with {@link InputReplay}.
+ * <p>
+ * A recording is the level, the seed of the game's random numbers and the
+ * screen size, followed by one 12 byte tick per frame: the frame time, the
+ * buttons as bits, both movement axes and the pointer's screen position.
+ * The ticks are kept in memory while the level is played and written to the
+ * file when the recorder is closed, so recording does no disk work per frame.
+ */
+public class InputRecorder {
+    /** "CHRI", the first bytes of every recording */
+    static final int MAGIC = 0x43485249;
+    static final int VERSION = 1;
+    /** Movement axes are stored as bytes; the keyboard gives exactly -1, 0 or 1 */
+    static final float AXIS_SCALE = 63f;
+    /** Gamepad and keyboard movement can add up to this much */
+    static final float AXIS_MAX = 2f;
+
+    private final File file;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private int ticks;
+
+    /**
+     * Starts a recording.
+     *
+     * @param file   where the recording is saved on {@link #close()}
+     * @param level  the level being played, starting from 1
+     * @param seed   the seed the game's random numbers were given
+     * @param width  the screen width in pixels
+     * @param height the screen height in pixels
+     */
+    public InputRecorder(File file, int level, long seed, int width, int height) {
+        this.file = file;
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(level);
+            out.writeLong(seed);
+            out.writeShort(width);
+            out.writeShort(height);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // Not thrown by a byte array
+        }
+    }
+
+    /**
+     * Rounds a movement axis to what the recording can store. Recorded play
+     * must use the rounded value, or its playback would drift from it.
+     */
+    public static float quantize(float axis) {
+        return encodeAxis(axis) / AXIS_SCALE;
+    }
+
+    private static int encodeAxis(float axis) {
+        return Math.round(Math.max(-AXIS_MAX, Math.min(AXIS_MAX, axis)) * AXIS_SCALE);
+    }
+
+    /**
+     * Adds a frame to the recording.
+     *
+     * @param delta      the frame time in seconds
+     * @param buttons    the buttons held, as bits
+     * @param horizontal the sideways movement, already quantized
+     * @param vertical   the vertical movement, already quantized
+     * @param screenX    the pointer's x in screen pixels
+     * @param screenY    the pointer's y in screen pixels
+     */
+    public void writeTick(float delta, int buttons, float horizontal, float vertical,
+                          int screenX, int screenY) {
+        try {
+            out.writeFloat(delta);
+            out.writeShort(buttons);
+            out.writeByte(encodeAxis(horizontal));
+            out.writeByte(encodeAxis(vertical));
+            out.writeShort(screenX);
+            out.writeShort(screenY);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // Not thrown by a byte array
+        }
+        ticks++;
+    }
+
+    /** Returns the number of frames recorded so far */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /** Saves the recording to its file */
+    public void close() {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            try (OutputStream stream = new FileOutputStream(file)) {
+                bytes.writeTo(stream);
+            }
+            Gdx.app.log("InputRecorder", "Saved " + ticks + " frames to " + file);
+        } catch (IOException e) {
+            Gdx.app.error("InputRecorder", "Could not save the recording", e);
+        }
+    }
+}
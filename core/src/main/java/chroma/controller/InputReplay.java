@@ -0,0 +1,128 @@
+package chroma.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * InputReplay
+ * -----------
+ * Plays back a recording made by {@link InputRecorder}, a frame at a time.
+ * <p>
+ * The whole recording is read when it is loaded, so playback does no disk
+ * work. Given the same build, the seed and the frame times make the game
+ * play out exactly as it was recorded, which makes a recording a repeatable
+ * workload for comparing frame costs.
+ */
+public class InputReplay implements InputScript {
+    private final ByteBuffer ticks;
+    private final int level;
+    private final long seed;
+    private final int width;
+    private final int height;
+
+    // The current tick
+    private float delta;
+    private int buttons;
+    private float horizontal;
+    private float vertical;
+    private int screenX;
+    private int screenY;
+
+    private InputReplay(ByteBuffer data) throws IOException {
+        if (data.remaining() < 18 || data.getInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        int version = data.getShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        level = data.getShort();
+        seed = data.getLong();
+        width = data.getShort();
+        height = data.getShort();
+        ticks = data.slice();
+    }
+
+    /**
+     * Loads a recording.
+     *
+     * @param file the recording
+     * @return the recording, ready to play from its first frame
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public static InputReplay load(File file) throws IOException {
+        return new InputReplay(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+    }
+
+    /** Returns the level the recording was made in, starting from 1 */
+    public int getLevel() { return level; }
+
+    /** Returns the seed the game's random numbers were given */
+    public long getSeed() { return seed; }
+
+    /** Returns the screen width in pixels */
+    public int getWidth() { return width; }
+
+    /** Returns the screen height in pixels */
+    public int getHeight() { return height; }
+
+    /** Returns the number of frames in the recording */
+    public int getTickCount() { return ticks.limit() / 12; }
+
+    /** Returns true once every frame has been played */
+    @Override
+    public boolean isFinished() {
+        return ticks.remaining() < 12;
+    }
+
+    /** Goes back to the first frame */
+    @Override
+    public void rewind() {
+        ticks.rewind();
+    }
+
+    /**
+     * Moves to the next frame.
+     *
+     * @return false if the recording has no frames left
+     */
+    @Override
+    public boolean nextTick() {
+        if (isFinished()) {
+            return false;
+        }
+        delta = ticks.getFloat();
+        buttons = ticks.getShort() & 0xFFFF;
+        horizontal = ticks.get() / InputRecorder.AXIS_SCALE;
+        vertical = ticks.get() / InputRecorder.AXIS_SCALE;
+        screenX = ticks.getShort();
+        screenY = ticks.getShort();
+        return true;
+    }
+
+    /** Returns the frame time in seconds */
+    @Override
+    public float getDelta() { return delta; }
+
+    /** Returns the buttons held, as bits */
+    @Override
+    public int getButtons() { return buttons; }
+
+    /** Returns the sideways movement */
+    @Override
+    public float getHorizontal() { return horizontal; }
+
+    /** Returns the vertical movement */
+    @Override
+    public float getVertical() { return vertical; }
+
+    /** Returns the pointer's x in screen pixels */
+    @Override
+    public int getScreenX() { return screenX; }
+
+    /** Returns the pointer's y in screen pixels */
+    @Override
+    public int getScreenY() { return screenY; }
+}
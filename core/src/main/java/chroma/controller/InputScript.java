@@ -0,0 +1,45 @@
+package chroma.controller;
+
+/**
+ * InputScript
+ * -----------
+ * Input that comes from a program instead of the devices, one frame at a
+ * time: a recording being played back ({@link InputReplay}) or a bot
+ * playing the level ({@link BotPlayer}). {@link InputController} reads a
+ * frame from it each time it syncs.
+ * <p>
+ * Buttons are given as the bits of a recording, so a script presses the
+ * same buttons a player could.
+ */
+public interface InputScript {
+    /** Returns true once the script has no frames left */
+    boolean isFinished();
+
+    /** Goes back to the start, for playing the level again */
+    void rewind();
+
+    /**
+     * Moves to the next frame.
+     *
+     * @return false if the script has no frames left
+     */
+    boolean nextTick();
+
+    /** Returns the frame time in seconds */
+    float getDelta();
+
+    /** Returns the buttons held, as bits */
+    int getButtons();
+
+    /** Returns the sideways movement */
+    float getHorizontal();
+
+    /** Returns the vertical movement */
+    float getVertical();
+
+    /** Returns the pointer's x in screen pixels */
+    int getScreenX();
+
+    /** Returns the pointer's y in screen pixels */
+    int getScreenY();
+}
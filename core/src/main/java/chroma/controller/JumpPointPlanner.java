@@ -0,0 +1,288 @@
+package chroma.controller;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * JumpPointPlanner
+ * ----------------
+ * Jump Point Search over a bitmap of walkable cells.
+ * <p>
+ * The movement rules are those of the guards' nav grid: eight neighbours,
+ * straight steps cost 1 and diagonal steps cost sqrt(2), and any step to a
+ * walkable cell is allowed, diagonals past a blocked corner included. A
+ * grid point is only walkable when the four tiles around it are clear, so
+ * such a diagonal never touches a wall, and the nav graph keeps it too. On
+ * this grid JPS finds paths of the same cost as A*, but only pushes the
+ * cells where a path can turn instead of every cell of an open room.
+ * <p>
+ * Cells are numbered x + y * width. The bitmap may be shared, but a planner
+ * keeps its search state between calls, so each guard needs its own.
+ */
+public class JumpPointPlanner {
+    private static final float SQRT2 = (float) Math.sqrt(2);
+
+    private final int width;
+    private final int height;
+    private final boolean[] walkable;
+
+    // Search state, valid where stamp == generation
+    private final float[] cost;
+    private final int[] parent;
+    private final int[] stamp;
+    private final boolean[] closed;
+    private int generation;
+    private int goal;
+
+    // Open list: a binary heap of cells by estimated total cost
+    private final IntArray heapCells = new IntArray();
+    private final FloatArray heapScores = new FloatArray();
+
+    /** Scratch for the pruned directions of a cell, as (dx, dy) pairs */
+    private final int[] dirs = new int[16];
+
+    /**
+     * Creates a planner for a grid.
+     *
+     * @param walkable the walkable cells, numbered x + y * width; not copied
+     * @param width    the grid width
+     * @param height   the grid height
+     */
+    public JumpPointPlanner(boolean[] walkable, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.walkable = walkable;
+        cost = new float[walkable.length];
+        parent = new int[walkable.length];
+        stamp = new int[walkable.length];
+        closed = new boolean[walkable.length];
+    }
+
+    /**
+     * Finds a shortest path between two cells.
+     *
+     * @param out receives every cell of the path, start first, if one is found
+     * @return true if the goal can be reached
+     */
+    public boolean search(int startX, int startY, int goalX, int goalY, IntArray out) {
+        if (!isWalkable(startX, startY) || !isWalkable(goalX, goalY)) {
+            return false;
+        }
+        int start = startX + startY * width;
+        goal = goalX + goalY * width;
+        generation++;
+        heapCells.clear();
+        heapScores.clear();
+
+        touch(start, 0, -1);
+        push(start, estimate(startX, startY));
+        while (heapCells.size > 0) {
+            int cell = pop();
+            if (closed[cell]) {
+                continue;
+            }
+            closed[cell] = true;
+            if (cell == goal) {
+                unwind(out);
+                return true;
+            }
+
+            int x = cell % width;
+            int y = cell / width;
+            int count = prune(x, y, parent[cell]);
+            for (int d = 0; d < count; d += 2) {
+                int dx = dirs[d];
+                int dy = dirs[d + 1];
+                int jump = jump(x + dx, y + dy, dx, dy);
+                if (jump < 0 || (stamp[jump] == generation && closed[jump])) {
+                    continue;
+                }
+                int jx = jump % width;
+                int jy = jump / width;
+                float reached = cost[cell] + octile(jx - x, jy - y);
+                if (stamp[jump] != generation || reached < cost[jump]) {
+                    touch(jump, reached, cell);
+                    push(jump, reached + estimate(jx, jy));
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Returns true if the cell is inside the grid and walkable */
+    public boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && walkable[x + y * width];
+    }
+
+    /**
+     * Walks from (x, y) in direction (dx, dy) until it reaches the goal, a
+     * cell with a forced neighbour, or something it cannot pass.
+     *
+     * @return the jump point, or -1 if there is none in this direction
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            if (!isWalkable(x, y)) {
+                return -1;
+            }
+            int cell = x + y * width;
+            if (cell == goal) {
+                return cell;
+            }
+            if (dx != 0 && dy != 0) {
+                // Forced: a blocked cell behind one side opens a shorter way round it
+                if ((isWalkable(x - dx, y + dy) && !isWalkable(x - dx, y))
+                    || (isWalkable(x + dx, y - dy) && !isWalkable(x, y - dy))) {
+                    return cell;
+                }
+                // A diagonal stops where a straight jump from it finds something
+                if (jump(x + dx, y, dx, 0) >= 0 || jump(x, y + dy, 0, dy) >= 0) {
+                    return cell;
+                }
+            } else if (dx != 0) {
+                if ((isWalkable(x + dx, y + 1) && !isWalkable(x, y + 1))
+                    || (isWalkable(x + dx, y - 1) && !isWalkable(x, y - 1))) {
+                    return cell;
+                }
+            } else {
+                if ((isWalkable(x + 1, y + dy) && !isWalkable(x + 1, y))
+                    || (isWalkable(x - 1, y + dy) && !isWalkable(x - 1, y))) {
+                    return cell;
+                }
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+    /**
+     * Fills {@link #dirs} with the directions worth jumping in from a cell,
+     * given the cell it was reached from.
+     *
+     * @return the number of ints written (two per direction)
+     */
+    private int prune(int x, int y, int from) {
+        int n = 0;
+        if (from < 0) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx != 0 || dy != 0) && canStep(x, y, dx, dy)) {
+                        dirs[n++] = dx;
+                        dirs[n++] = dy;
+                    }
+                }
+            }
+            return n;
+        }
+
+        int dx = Integer.signum(x - from % width);
+        int dy = Integer.signum(y - from / width);
+        // The natural directions, plus the forced ones round a blocked side
+        if (dx != 0 && dy != 0) {
+            if (isWalkable(x, y + dy)) { dirs[n++] = 0; dirs[n++] = dy; }
+            if (isWalkable(x + dx, y)) { dirs[n++] = dx; dirs[n++] = 0; }
+            if (isWalkable(x + dx, y + dy)) { dirs[n++] = dx; dirs[n++] = dy; }
+            if (!isWalkable(x - dx, y) && isWalkable(x - dx, y + dy)) { dirs[n++] = -dx; dirs[n++] = dy; }
+            if (!isWalkable(x, y - dy) && isWalkable(x + dx, y - dy)) { dirs[n++] = dx; dirs[n++] = -dy; }
+        } else if (dx != 0) {
+            if (isWalkable(x + dx, y)) { dirs[n++] = dx; dirs[n++] = 0; }
+            if (!isWalkable(x, y + 1) && isWalkable(x + dx, y + 1)) { dirs[n++] = dx; dirs[n++] = 1; }
+            if (!isWalkable(x, y - 1) && isWalkable(x + dx, y - 1)) { dirs[n++] = dx; dirs[n++] = -1; }
+        } else {
+            if (isWalkable(x, y + dy)) { dirs[n++] = 0; dirs[n++] = dy; }
+            if (!isWalkable(x + 1, y) && isWalkable(x + 1, y + dy)) { dirs[n++] = 1; dirs[n++] = dy; }
+            if (!isWalkable(x - 1, y) && isWalkable(x - 1, y + dy)) { dirs[n++] = -1; dirs[n++] = dy; }
+        }
+        return n;
+    }
+
+    /** Returns true if one step in direction (dx, dy) is allowed from (x, y) */
+    private boolean canStep(int x, int y, int dx, int dy) {
+        return isWalkable(x + dx, y + dy);
+    }
+
+    /** Writes the path into out, expanding the jumps between jump points */
+    private void unwind(IntArray out) {
+        out.clear();
+        for (int cell = goal; cell >= 0; cell = parent[cell]) {
+            out.add(cell);
+            int from = parent[cell];
+            if (from < 0) {
+                break;
+            }
+            int x = cell % width;
+            int y = cell / width;
+            int dx = Integer.signum(from % width - x);
+            int dy = Integer.signum(from / width - y);
+            for (x += dx, y += dy; x + y * width != from; x += dx, y += dy) {
+                out.add(x + y * width);
+            }
+        }
+        out.reverse();
+    }
+
+    private void touch(int cell, float reached, int from) {
+        if (stamp[cell] != generation) {
+            stamp[cell] = generation;
+            closed[cell] = false;
+        }
+        cost[cell] = reached;
+        parent[cell] = from;
+    }
+
+    private float estimate(int x, int y) {
+        return octile(goal % width - x, goal / width - y);
+    }
+
+    /** Cost of the shortest 8-way move over the given offset */
+    private static float octile(int dx, int dy) {
+        dx = Math.abs(dx);
+        dy = Math.abs(dy);
+        return Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+    }
+
+    private void push(int cell, float score) {
+        heapCells.add(cell);
+        heapScores.add(score);
+        int i = heapCells.size - 1;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapScores.get(up) <= score) {
+                break;
+            }
+            heapCells.set(i, heapCells.get(up));
+            heapScores.set(i, heapScores.get(up));
+            i = up;
+        }
+        heapCells.set(i, cell);
+        heapScores.set(i, score);
+    }
+
+    private int pop() {
+        int top = heapCells.get(0);
+        int last = heapCells.pop();
+        float score = heapScores.pop();
+        int size = heapCells.size;
+        if (size > 0) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapScores.get(child + 1) < heapScores.get(child)) {
+                    child++;
+                }
+                if (heapScores.get(child) >= score) {
+                    break;
+                }
+                heapCells.set(i, heapCells.get(child));
+                heapScores.set(i, heapScores.get(child));
+                i = child;
+            }
+            heapCells.set(i, last);
+            heapScores.set(i, score);
+        }
+        return top;
+    }
+}
@@ -0,0 +1,62 @@
+package chroma.controller;
+
+import chroma.model.Level;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import edu.cornell.gdiac.assets.AssetDirectory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * LevelLoader
+ * -----------
+ * Builds levels on a background thread.
+ * <p>
+ * Constructing a {@link Level} is CPU-only work (JSON traversal, tile lookup,
+ * polygon triangulation, laser merging, animation setup, the guards' nav
+ * graph), so it runs here instead of stalling the render thread. What is left for the render thread
+ * is {@link Level#finishOnGlThread()} and adding the bodies to Box2D.
+ * <p>
+ * Levels are built one at a time, in the order they were requested.
+ */
+public class LevelLoader {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LevelLoader() { }
+
+    /**
+     * Starts building the selector's current level in the background.
+     *
+     * @param directory the asset directory; it must have finished loading
+     * @param units     the physics units conversion factor
+     * @param selector  the selector naming the level; it must not change
+     *                  until the level is built
+     * @return the level being built
+     */
+    public static Future<Level> prepare(AssetDirectory directory, float units, LevelSelector selector) {
+        return EXECUTOR.submit(() -> new Level(directory, units, selector));
+    }
+
+    /**
+     * Waits for a level to finish building and returns it.
+     *
+     * @param pending the level returned by {@link #prepare}
+     * @return the built level, not yet finished on the GL thread
+     */
+    public static Level await(Future<Level> pending) {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while building level", e);
+        } catch (ExecutionException e) {
+            throw new GdxRuntimeException("Failed to build level", e.getCause());
+        }
+    }
+}
@@ -94,7 +94,8 @@ public class LoadingMode implements Screen, InputProcessor {
     private GameplayController[] controllers;
     /** LevelSelector for backend logic */
     private LevelSelector levelSelector;
-    private int controllersInitialized = 0;
+    /** Controllers constructed so far */
+    private int controllersCreated = 0;
     private static final int TOTAL_CONTROLLERS = 18;
     private Texture[] loadingImages;
 
@@ -252,23 +253,32 @@ public class LoadingMode implements Screen, InputProcessor {
             filtersSet = true;   // ensure we only do this once
         }
 
-        // Incrementally initialize controllers
-        if (filtersSet && controllersInitialized < TOTAL_CONTROLLERS) {
+        // Incrementally initialize controllers, one per frame. Controllers stay
+        // suspended: a level and its physics world are only built when played.
+        if (filtersSet && controllersCreated < TOTAL_CONTROLLERS) {
             levelSelector = new LevelSelector(assets);
-            levelSelector.setCurrentLevel(controllersInitialized + 1);
-            controllers[controllersInitialized] = new GameplayController(assets, levelSelector);
-            controllers[controllersInitialized].setScreenListener(listener);  // You'll need to pass the listener in constructor or setter
-            controllers[controllersInitialized].setSpriteBatch(batch);
-            controllers[controllersInitialized].reset();
-            controllersInitialized++;
+            levelSelector.setCurrentLevel(controllersCreated + 1);
+            controllers[controllersCreated] = new GameplayController(assets, levelSelector);
+            controllers[controllersCreated].setScreenListener(listener);  // You'll need to pass the listener in constructor or setter
+            controllers[controllersCreated].setSpriteBatch(batch);
+            controllersCreated++;
         }
 
         // Mark as finished loading only when all done
-        if (controllersInitialized >= TOTAL_CONTROLLERS) {
+        if (controllersCreated >= TOTAL_CONTROLLERS) {
             loading = false;
         }
     }
 
+    /**
+     * Returns the overall loading progress from 0 to 1. Asset loading is the
+     * first half; the second half counts the controllers created.
+     */
+    private float getLoadProgress() {
+        float levels = controllersCreated / (float) TOTAL_CONTROLLERS;
+        return (progress + levels) / 2f;
+    }
+
     /**
      * Draws the status of this player mode.
      *
@@ -285,7 +295,7 @@ public class LoadingMode implements Screen, InputProcessor {
 
         if (loading) {
             // Draw one of the 13 loading images
-            int imageIndex = Math.min(controllersInitialized * 13 / TOTAL_CONTROLLERS, 12);
+            int imageIndex = Math.min((int) (getLoadProgress() * 13), 12);
             Texture loadingImage = loadingImages[imageIndex];
             if (loadingImage != null) {
                 batch.draw(loadingImage, 0, 0, width, height);
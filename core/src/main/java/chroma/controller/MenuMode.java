@@ -22,7 +22,6 @@ import com.badlogic.gdx.utils.ScreenUtils;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.graphics.SpriteBatch;
 import edu.cornell.gdiac.util.ScreenListener;
-import com.badlogic.gdx.Preferences;
 
 
 public class MenuMode implements Screen, InputProcessor {
@@ -74,7 +73,6 @@ public class MenuMode implements Screen, InputProcessor {
     private boolean rightPressed;
     /** Current page number*/
     private int currPage;
-    private Preferences prefs;
     /** Draw the outline for determining */
     private ShapeRenderer shapeRenderer;
 
@@ -116,7 +114,6 @@ public class MenuMode implements Screen, InputProcessor {
         internal = new AssetDirectory( "menu/menu.json" );
         internal.loadAssets();
         internal.finishLoading();
-        prefs = Gdx.app.getPreferences("GameProgress");
         levelSelectedSound = internal.getEntry("level-select", Sound.class);
 
         menuSong = internal.getEntry("intro", Sound.class);
@@ -239,7 +236,7 @@ public class MenuMode implements Screen, InputProcessor {
             int levelNum  = i + 1 + currPage * perPage;
 
 
-            boolean done = prefs.getBoolean("level" + levelNum + "Completed", false);
+            boolean done = ProgressStore.getInstance().isCompleted(levelNum);
 
             Texture texture;
             if (done) {
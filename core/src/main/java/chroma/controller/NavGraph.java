@@ -0,0 +1,279 @@
+package chroma.controller;
+
+import chroma.model.NavField;
+import chroma.model.SolidGrid;
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * NavGraph
+ * --------
+ * The guards' navigation graph for one level, shared by every guard on it.
+ * <p>
+ * Nodes sit on the integer grid points that are not inside a wall and are
+ * numbered 0..n-1. Positions are kept in a flat array and edges in
+ * compressed sparse row form: the edges of node i are the entries
+ * edgeStart[i] to edgeStart[i+1] of the target and cost arrays. Each node
+ * connects to the up to eight neighbours it can see.
+ * <p>
+ * gdx-ai's A* needs node and connection objects. The graph hands out one
+ * small {@link Node} per id, and builds the connections of a node the
+ * first time a search asks for them. They are then kept, because the path
+ * finder refers back to them when it rebuilds a path.
+ */
+public class NavGraph implements IndexedGraph<NavGraph.Node> {
+    /** Grid size in cells; cell (x, y) is number x + y * width */
+    private final int width;
+    private final int height;
+    private final NavField field;
+    /** Node id of each cell, or -1 where the cell is blocked */
+    private final int[] nodeAt;
+    /** x, y of each node */
+    private final float[] positions;
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final float[] edgeCost;
+
+    // gdx-ai adapter
+    private final Node[] nodes;
+    private final Array<Connection<Node>>[] connections;
+
+    /** Cells for Jump Point Search, built on first use */
+    private boolean[] jumpPointCells;
+
+    @SuppressWarnings("unchecked")
+    private NavGraph(NavField field, int[] nodeAt, float[] positions,
+                     int[] edgeStart, int[] edgeTarget, float[] edgeCost) {
+        this.field = field;
+        this.width = field.getWidth();
+        this.height = field.getHeight();
+        this.nodeAt = nodeAt;
+        this.positions = positions;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeCost = edgeCost;
+
+        int count = positions.length / 2;
+        nodes = new Node[count];
+        for (int id = 0; id < count; id++) {
+            nodes[id] = new Node(id);
+        }
+        connections = new Array[count];
+    }
+
+    /**
+     * Builds the graph for a level. It only reads the level's grids, so it
+     * may run on the loader thread with the rest of the level.
+     *
+     * @param field    the level's baked grid, for the size and blocked points
+     * @param solids   the wall tiles, for blocked edges
+     * @param machines the goal machine tiles, for edges blocked by a machine
+     * @return the graph
+     */
+    public static NavGraph build(NavField field, SolidGrid solids, SolidGrid machines) {
+        int width = field.getWidth();
+        int height = field.getHeight();
+        int[] nodeAt = new int[width * height];
+        FloatArray positions = new FloatArray();
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (field.isWalkable(x, y)) {
+                    nodeAt[x + y * width] = count++;
+                    positions.add(x, y);
+                } else {
+                    nodeAt[x + y * width] = -1;
+                }
+            }
+        }
+
+        int[] edgeStart = new int[count + 1];
+        IntArray targets = new IntArray(count * 8);
+        FloatArray costs = new FloatArray(count * 8);
+        for (int id = 0; id < count; id++) {
+            int x = (int) positions.get(2 * id);
+            int y = (int) positions.get(2 * id + 1);
+            edgeStart[id] = targets.size;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx == 0 && dy == 0) continue;
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                    int other = nodeAt[nx + ny * width];
+                    if (other >= 0 && !solids.isLineBlocked(x, y, nx, ny)
+                        && !machines.isLineBlocked(x, y, nx, ny)) {
+                        targets.add(other);
+                        costs.add((float) Math.sqrt(dx * dx + dy * dy));
+                    }
+                }
+            }
+        }
+        edgeStart[count] = targets.size;
+
+        return new NavGraph(field, nodeAt, positions.toArray(), edgeStart,
+            targets.toArray(), costs.toArray());
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /** Returns the node at a grid point, or -1 if it is blocked or outside */
+    public int nodeAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        return nodeAt[x + y * width];
+    }
+
+    /**
+     * Returns the node closest to a position, read from the level's baked
+     * nearest-walkable table, or -1 if the level has no walkable point.
+     */
+    public int nearestNode(float px, float py) {
+        int cell = field.nearestWalkable(px, py);
+        return cell < 0 ? -1 : nodeAt[cell];
+    }
+
+    /** Returns the level's baked grid this graph was built from */
+    public NavField getField() { return field; }
+
+    public float getX(int id) { return positions[2 * id]; }
+    public float getY(int id) { return positions[2 * id + 1]; }
+
+    /** Returns the grid cell number (x + y * width) of a node */
+    public int getCell(int id) {
+        return (int) positions[2 * id] + (int) positions[2 * id + 1] * width;
+    }
+
+    /** Returns the gdx-ai node for an id */
+    public Node getNode(int id) { return nodes[id]; }
+
+    /**
+     * Returns the cells for Jump Point Search, indexed like the grid. JPS
+     * assumes a plain grid: a step to any walkable neighbour, diagonals past
+     * a blocked corner included. Walls never block such a step, because a
+     * point is only walkable when the four tiles around it are clear. Nodes
+     * that lack one of those steps (next to goal machines) are left out, so
+     * every JPS path is also a path of the graph, and JPS paths cost what A*
+     * paths do wherever no node is left out.
+     */
+    public boolean[] getJumpPointCells() {
+        if (jumpPointCells != null) {
+            return jumpPointCells;
+        }
+        boolean[] cells = new boolean[width * height];
+        for (int id = 0; id < nodes.length; id++) {
+            int x = (int) positions[2 * id];
+            int y = (int) positions[2 * id + 1];
+            int expected = 0;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx != 0 || dy != 0) && nodeAt(x + dx, y + dy) >= 0) {
+                        expected++;
+                    }
+                }
+            }
+            // Edges only go to walkable neighbours, so a missing one was blocked
+            cells[x + y * width] = edgeStart[id + 1] - edgeStart[id] == expected;
+        }
+        jumpPointCells = cells;
+        return cells;
+    }
+
+    /**
+     * Returns true if only walls limit where one can go from a node: its
+     * edges are those of the plain grid. A straight line through such nodes
+     * needs nothing but the grid line test.
+     */
+    public boolean isPlain(int id) {
+        return getJumpPointCells()[getCell(id)];
+    }
+
+    /**
+     * Returns true if every grid point the line from (x0, y0) to (x1, y1)
+     * passes between its ends is a plain node. The line is walked in
+     * quarter-tile steps and each step rounded to its grid point. A goal
+     * machine's tiles have non-plain points at their corners, so a line that
+     * passes this test does not cross a machine. The points at the ends are
+     * skipped: a path already stands on or heads for them.
+     */
+    public boolean isPlainLine(float x0, float y0, float x1, float y1) {
+        int startX = Math.round(x0);
+        int startY = Math.round(y0);
+        int endX = Math.round(x1);
+        int endY = Math.round(y1);
+        int steps = Math.max(1, (int) Math.ceil(Vector2.dst(x0, y0, x1, y1) * 4));
+        for (int i = 1; i < steps; i++) {
+            float t = (float) i / steps;
+            int x = Math.round(x0 + (x1 - x0) * t);
+            int y = Math.round(y0 + (y1 - y0) * t);
+            if ((x == startX && y == startY) || (x == endX && y == endY)) {
+                continue;
+            }
+            int id = nodeAt(x, y);
+            if (id < 0 || !isPlain(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getIndex(Node node) {
+        return node.id;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    @Override
+    public Array<Connection<Node>> getConnections(Node fromNode) {
+        int id = fromNode.id;
+        Array<Connection<Node>> list = connections[id];
+        if (list == null) {
+            list = new Array<>(edgeStart[id + 1] - edgeStart[id]);
+            for (int e = edgeStart[id]; e < edgeStart[id + 1]; e++) {
+                list.add(new Edge(fromNode, nodes[edgeTarget[e]], edgeCost[e]));
+            }
+            connections[id] = list;
+        }
+        return list;
+    }
+
+    /** A node as gdx-ai sees it: just its id */
+    public static final class Node {
+        public final int id;
+
+        Node(int id) {
+            this.id = id;
+        }
+    }
+
+    private static final class Edge implements Connection<Node> {
+        private final Node from;
+        private final Node to;
+        private final float cost;
+
+        Edge(Node from, Node to, float cost) {
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+        }
+
+        @Override
+        public float getCost() { return cost; }
+
+        @Override
+        public Node getFromNode() { return from; }
+
+        @Override
+        public Node getToNode() { return to; }
+    }
+}
@@ -0,0 +1,101 @@
+package chroma.controller;
+
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.utils.Queue;
+
+/**
+ * PathSearchQueue
+ * ---------------
+ * Runs the guards' full path searches a slice at a time, within a time
+ * budget per frame.
+ * <p>
+ * A guard that needs a fresh path submits a gdx-ai {@link PathFinderRequest}
+ * and keeps steering towards its last waypoint until the request is done.
+ * The queue owns one A* path finder and feeds it the requests in order
+ * through its interruptible search, which stops when the frame's slice runs
+ * out and carries on from there on the next frame. A burst of replans, like
+ * every guard reacting to the same alarm, is spread over several frames
+ * instead of landing in one.
+ * <p>
+ * This is gdx-ai's {@link PathFinderQueue} without the message dispatch:
+ * guards poll the status of their request rather than being sent a telegram.
+ */
+public class PathSearchQueue {
+    private final IndexedAStarPathFinder<NavGraph.Node> pathFinder;
+    private final Queue<PathFinderRequest<NavGraph.Node>> requests = new Queue<>();
+    /** Search time per frame, in nanoseconds */
+    private final long budget;
+
+    /**
+     * Creates a queue for a level's graph.
+     *
+     * @param graph    the nav graph the requests refer to
+     * @param budgetMs milliseconds of searching per frame
+     */
+    public PathSearchQueue(NavGraph graph, float budgetMs) {
+        pathFinder = new IndexedAStarPathFinder<>(graph);
+        budget = (long) (budgetMs * 1000000L);
+    }
+
+    /**
+     * Queues a request. Its start, end, heuristic and result path must be
+     * set; the result path is cleared. The request is searched from scratch
+     * even if it was used before, and must not be changed until it is done
+     * or cancelled.
+     */
+    public void submit(PathFinderRequest<NavGraph.Node> request) {
+        request.resultPath.clear();
+        request.pathFound = false;
+        request.executionFrames = 0;
+        // Tells the path finder to start a new search
+        request.changeStatus(PathFinderRequest.SEARCH_INITIALIZED);
+        requests.addLast(request);
+    }
+
+    /** Drops a request that has not finished yet */
+    public void cancel(PathFinderRequest<NavGraph.Node> request) {
+        requests.removeValue(request, true);
+    }
+
+    /** Returns the number of requests not finished yet */
+    public int size() {
+        return requests.size;
+    }
+
+    /**
+     * Searches for up to the frame's budget, finishing requests in the order
+     * they were submitted. Finished requests have the status
+     * {@link PathFinderRequest#SEARCH_DONE}. Call once per frame.
+     */
+    public void run() {
+        run(budget);
+    }
+
+    /**
+     * Finishes every request now, however long it takes. Use instead of
+     * {@link #run()} when play must be repeatable: with a time budget, when
+     * a search finishes depends on how fast the machine is.
+     */
+    public void finish() {
+        run(Long.MAX_VALUE / 2);
+    }
+
+    private void run(long budget) {
+        long start = System.nanoTime();
+        while (requests.size > 0) {
+            long left = budget - (System.nanoTime() - start);
+            if (left <= PathFinderQueue.TIME_TOLERANCE) {
+                return;
+            }
+            PathFinderRequest<NavGraph.Node> request = requests.first();
+            request.executionFrames++;
+            if (!pathFinder.search(request, left)) {
+                return;
+            }
+            request.changeStatus(PathFinderRequest.SEARCH_DONE);
+            requests.removeFirst();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package chroma.controller;
+
+import chroma.model.SolidGrid;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * PathSmoother
+ * ------------
+ * Turns a guard's grid path into a few straight-line waypoints.
+ * <p>
+ * Grid paths turn at every cell, so a guard following one re-steers each
+ * step. The smoother string-pulls the path: from each waypoint it skips
+ * ahead to the farthest grid point the guard's body can reach in a straight
+ * line. A line is clear when it and the two lines a body radius to either
+ * side of it touch no wall tile, and every grid point it passes is a plain
+ * node of the nav graph. Both are grid tests, not Box2D raycasts. Goal
+ * machines are not in the wall grid, but the nodes around them are not
+ * plain, so the smoother never skips past or across a machine.
+ */
+public class PathSmoother {
+    private final SolidGrid solids;
+    private final NavGraph graph;
+    /** Half the width of the body that follows the path */
+    private final float radius;
+
+    /** Points handed out as waypoints, reused from call to call */
+    private final Array<Vector2> points = new Array<>();
+    private final Vector2 side = new Vector2();
+
+    /**
+     * Creates a smoother for one guard.
+     *
+     * @param solids the level's wall tiles
+     * @param graph  the nav graph the paths come from
+     * @param radius half the width of the guard's body
+     */
+    public PathSmoother(SolidGrid solids, NavGraph graph, float radius) {
+        this.solids = solids;
+        this.graph = graph;
+        this.radius = radius;
+    }
+
+    /**
+     * String-pulls a grid path.
+     *
+     * @param path the grid points of the path, start first
+     * @param out  receives the waypoints after the start, ending with the
+     *             last point of the path; they are reused by the next call
+     * @return out, for chaining
+     */
+    public Array<Vector2> smooth(Array<Vector2> path, Array<Vector2> out) {
+        out.clear();
+        int anchor = 0;
+        while (anchor < path.size - 1) {
+            int next = anchor + 1;
+            while (next + 1 < path.size && isPlain(path.get(next))
+                && isClear(path.get(anchor), path.get(next + 1))) {
+                next++;
+            }
+            if (out.size == points.size) {
+                points.add(new Vector2());
+            }
+            out.add(points.get(out.size).set(path.get(next)));
+            anchor = next;
+        }
+        return out;
+    }
+
+    /**
+     * Returns true if the body can move straight from a to b without touching
+     * a wall or crossing a node that something else (a goal machine) blocks.
+     */
+    public boolean isClear(Vector2 a, Vector2 b) {
+        if (solids.isLineBlocked(a.x, a.y, b.x, b.y) || !graph.isPlainLine(a.x, a.y, b.x, b.y)) {
+            return false;
+        }
+        side.set(b).sub(a).nor().rotate90(1).scl(radius);
+        return !solids.isLineBlocked(a.x + side.x, a.y + side.y, b.x + side.x, b.y + side.y)
+            && !solids.isLineBlocked(a.x - side.x, a.y - side.y, b.x - side.x, b.y - side.y);
+    }
+
+    private boolean isPlain(Vector2 point) {
+        int id = graph.nodeAt((int) point.x, (int) point.y);
+        return id >= 0 && graph.isPlain(id);
+    }
+}
@@ -0,0 +1,357 @@
+package chroma.controller;
+
+import chroma.model.*;
+import chroma.model.Enemy.Type;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.gdiac.physics2.CapsuleObstacle;
+import edu.cornell.gdiac.physics2.Obstacle;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * PerceptionStage
+ * ---------------
+ * Decides, once per AI pass, which enemies can see the player.
+ * <p>
+ * Box2D's World is not thread-safe, so the stage works on a snapshot instead:
+ * on the main thread it copies the player and enemy positions, each enemy's
+ * sight cone, and which lasers are on. Together with the wall grid and the
+ * static occluders (goal machines and laser strips, captured once per level)
+ * the snapshot is read-only while every enemy's field of view is tested, so
+ * the tests can run on the fork-join pool. The results are then handed back
+ * to the AIControllers in list order on the main thread, where the detection
+ * timers, state changes and sounds are applied as before.
+ * <p>
+ * Each enemy casts the same fan of rays as it did against Box2D. Grates,
+ * doors, spray and bombs never block sight; walls come from the grid; goal
+ * and laser fixtures are their axis-aligned boxes; the player and the guards
+ * are circles around their capsules.
+ */
+public class PerceptionStage {
+    /** Rays in each enemy's sight fan */
+    private static final int SIGHT_RAYS = 10;
+    /** How close a ray's first hit must pass to the player to see her */
+    private static final float DETECT_REACH = 1.5f;
+    /** How far from the player a ray may end and still count as seeing her */
+    private static final float HIT_TOLERANCE = 1f;
+    /** The front-facing camera ignores hits this close (squared) to itself */
+    private static final float CAMERA2_NEAR2 = 0.5f;
+    /** Fewer enemies than this are tested on the main thread */
+    private static final int PARALLEL_MIN = 4;
+
+    private final SolidGrid solids;
+    private final Chameleon player;
+    private final float playerRadius;
+
+    // Static occluders as boxes (minX, minY, maxX, maxY), captured once
+    private final FloatArray rects = new FloatArray();
+    /** Index into lasers of the laser owning each box, or -1 if always solid */
+    private final IntArray rectOwner = new IntArray();
+    private final Array<Laser> lasers = new Array<>();
+
+    // Per-pass snapshot, written on the main thread before the fan-out
+    private float playerX;
+    private float playerY;
+    private boolean[] laserOn = new boolean[0];
+    private int count;
+    private boolean[] enabled = new boolean[0];
+    private boolean[] camera2 = new boolean[0];
+    private float[] originX = new float[0];
+    private float[] originY = new float[0];
+    private float[] look = new float[0];
+    private float[] halfFov = new float[0];
+    private float[] range = new float[0];
+    private float[] bodyRadius = new float[0];
+    /** Results, one slot per enemy; each task writes only its own slots */
+    private boolean[] detected = new boolean[0];
+
+    /**
+     * Creates the stage for a freshly built level. Must be called after every
+     * static body (goals and lasers) has been added to the world.
+     *
+     * @param world  the physics world, read once for its static occluders
+     * @param solids the level's wall grid
+     * @param player the player avatar
+     */
+    public PerceptionStage(World world, SolidGrid solids, Chameleon player) {
+        this.solids = solids;
+        this.player = player;
+        this.playerRadius = capsuleRadius(player.getObstacle());
+
+        Array<Body> bodies = new Array<>();
+        world.getBodies(bodies);
+        Vector2 local = new Vector2();
+        for (Body body : bodies) {
+            Object data = body.getUserData();
+            int owner;
+            if (data instanceof Goal || data instanceof GoalCollision) {
+                owner = -1;
+            } else if (data instanceof Laser) {
+                owner = lasers.size;
+                lasers.add((Laser) data);
+            } else {
+                continue;
+            }
+            for (Fixture fixture : body.getFixtureList()) {
+                if (!(fixture.getShape() instanceof PolygonShape)) {
+                    continue;
+                }
+                PolygonShape shape = (PolygonShape) fixture.getShape();
+                float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+                float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+                for (int v = 0; v < shape.getVertexCount(); v++) {
+                    shape.getVertex(v, local);
+                    Vector2 point = body.getWorldPoint(local);
+                    minX = Math.min(minX, point.x);
+                    minY = Math.min(minY, point.y);
+                    maxX = Math.max(maxX, point.x);
+                    maxY = Math.max(maxY, point.y);
+                }
+                rects.add(minX, minY, maxX, maxY);
+                rectOwner.add(owner);
+            }
+        }
+        laserOn = new boolean[lasers.size];
+    }
+
+    /**
+     * Tests every enemy's sight and passes the result to its controller.
+     *
+     * @param controllers the AI controllers, in update order
+     */
+    public void sense(List<AIController> controllers) {
+        snapshot(controllers);
+        if (count >= PARALLEL_MIN) {
+            ForkJoinPool.commonPool().invoke(new SenseTask(0, count));
+        } else {
+            for (int i = 0; i < count; i++) {
+                detected[i] = canSee(i);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            controllers.get(i).setPlayerDetected(detected[i]);
+        }
+    }
+
+    /** Copies everything the sight tests read out of the live objects */
+    private void snapshot(List<AIController> controllers) {
+        count = controllers.size();
+        if (detected.length < count) {
+            enabled = new boolean[count];
+            camera2 = new boolean[count];
+            originX = new float[count];
+            originY = new float[count];
+            look = new float[count];
+            halfFov = new float[count];
+            range = new float[count];
+            bodyRadius = new float[count];
+            detected = new boolean[count];
+        }
+        for (int i = 0; i < lasers.size; i++) {
+            laserOn[i] = lasers.get(i).isActive();
+        }
+
+        Vector2 playerPos = player.getPosition();
+        boolean visible = playerPos != null && !player.isHidden();
+        if (playerPos != null) {
+            playerX = playerPos.x;
+            playerY = playerPos.y;
+        }
+
+        for (int i = 0; i < count; i++) {
+            AIController ai = controllers.get(i);
+            Enemy enemy = ai.getEnemy();
+            Vector2 enemyPos = enemy.getPosition();
+            float sight = ai.prepareSense();
+            detected[i] = false;
+            if (enemyPos == null) {
+                enabled[i] = false;
+                bodyRadius[i] = 0;
+                continue;
+            }
+            originX[i] = enemyPos.x;
+            originY[i] = enemyPos.y;
+            range[i] = sight;
+            camera2[i] = enemy.getType() == Type.CAMERA2;
+            bodyRadius[i] = enemy.getObstacle() != null ? capsuleRadius(enemy.getObstacle()) : 0;
+            enabled[i] = visible && enemyPos.dst(playerPos) <= sight;
+            if (enabled[i]) {
+                look[i] = enemy.getRotation();
+                halfFov[i] = (float) Math.toRadians(enemy.getFov() / 2);
+            }
+        }
+    }
+
+    /** Runs the sight fan of enemy i against the snapshot */
+    private boolean canSee(int i) {
+        if (!enabled[i]) {
+            return false;
+        }
+        float ox = originX[i];
+        float oy = originY[i];
+        float angleStep = (halfFov[i] * 2) / (SIGHT_RAYS - 1);
+
+        for (int k = 0; k < SIGHT_RAYS; k++) {
+            float rayAngle = look[i] - halfFov[i] + (k * angleStep);
+            float ex = ox + (float) Math.cos(rayAngle) * range[i];
+            float ey = oy + (float) Math.sin(rayAngle) * range[i];
+
+            // The front-facing camera sees over walls
+            if (!camera2[i]) {
+                float t = solids.raycast(ox, oy, ex, ey);
+                if (t >= 0) {
+                    ex = ox + (ex - ox) * t;
+                    ey = oy + (ey - oy) * t;
+                }
+            }
+
+            // The ray can only see the player if it passes next to her
+            if (Intersector.distanceSegmentPoint(ox, oy, ex, ey, playerX, playerY) > DETECT_REACH) {
+                continue;
+            }
+
+            float dx = ex - ox;
+            float dy = ey - oy;
+            float hit = (dx != 0 || dy != 0) ? firstHit(i, ox, oy, dx, dy) : 1;
+            float hx = ox + dx * hit;
+            float hy = oy + dy * hit;
+            if (Math.abs(hx - playerX) <= HIT_TOLERANCE && Math.abs(hy - playerY) <= HIT_TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the fraction of the ray at which it first enters an occluder,
+     * the player or another guard, or 1 if it hits nothing.
+     */
+    private float firstHit(int self, float ox, float oy, float dx, float dy) {
+        boolean skipNear = camera2[self];
+        float best = 1;
+
+        for (int r = 0, n = rectOwner.size; r < n; r++) {
+            int owner = rectOwner.get(r);
+            if (owner >= 0 && !laserOn[owner]) {
+                continue;
+            }
+            int b = r * 4;
+            float t = rectEntry(ox, oy, dx, dy, rects.get(b), rects.get(b + 1), rects.get(b + 2), rects.get(b + 3));
+            best = closer(best, t, dx, dy, skipNear);
+        }
+
+        best = closer(best, circleEntry(ox, oy, dx, dy, playerX, playerY, playerRadius), dx, dy, skipNear);
+        for (int j = 0; j < count; j++) {
+            if (j != self && bodyRadius[j] > 0) {
+                float t = circleEntry(ox, oy, dx, dy, originX[j], originY[j], bodyRadius[j]);
+                best = closer(best, t, dx, dy, skipNear);
+            }
+        }
+        return best;
+    }
+
+    /** Keeps the nearer of two hits, ignoring misses and the camera's own wall */
+    private static float closer(float best, float t, float dx, float dy, boolean skipNear) {
+        if (t < 0 || t >= best) {
+            return best;
+        }
+        if (skipNear && (dx * dx + dy * dy) * t * t < CAMERA2_NEAR2) {
+            return best;
+        }
+        return t;
+    }
+
+    /**
+     * Returns where a ray enters a box, or -1 if it misses or starts inside
+     * (Box2D does not report a fixture that contains the ray's start).
+     */
+    private static float rectEntry(float ox, float oy, float dx, float dy,
+                                   float minX, float minY, float maxX, float maxY) {
+        float enter = 0;
+        float exit = 1;
+        boolean entered = false;
+        if (dx == 0) {
+            if (ox < minX || ox > maxX) { return -1; }
+        } else {
+            float t0 = (minX - ox) / dx;
+            float t1 = (maxX - ox) / dx;
+            if (t0 > t1) { float s = t0; t0 = t1; t1 = s; }
+            if (t0 > enter) { enter = t0; entered = true; }
+            exit = Math.min(exit, t1);
+        }
+        if (dy == 0) {
+            if (oy < minY || oy > maxY) { return -1; }
+        } else {
+            float t0 = (minY - oy) / dy;
+            float t1 = (maxY - oy) / dy;
+            if (t0 > t1) { float s = t0; t0 = t1; t1 = s; }
+            if (t0 > enter) { enter = t0; entered = true; }
+            exit = Math.min(exit, t1);
+        }
+        return entered && enter <= exit ? enter : -1;
+    }
+
+    /**
+     * Returns where a ray enters a circle, or -1 if it misses or starts
+     * inside. Same math as Box2D's circle raycast.
+     */
+    private static float circleEntry(float ox, float oy, float dx, float dy,
+                                     float cx, float cy, float radius) {
+        float sx = ox - cx;
+        float sy = oy - cy;
+        float b = sx * sx + sy * sy - radius * radius;
+        if (b < 0) {
+            return -1;
+        }
+        float c = sx * dx + sy * dy;
+        float rr = dx * dx + dy * dy;
+        float sigma = c * c - rr * b;
+        if (sigma < 0 || rr == 0) {
+            return -1;
+        }
+        float a = -(c + (float) Math.sqrt(sigma));
+        return a >= 0 && a <= rr ? a / rr : -1;
+    }
+
+    /** Radius of the circle that covers a capsule body */
+    private static float capsuleRadius(Obstacle obstacle) {
+        if (obstacle instanceof CapsuleObstacle) {
+            CapsuleObstacle capsule = (CapsuleObstacle) obstacle;
+            return Math.max(capsule.getWidth(), capsule.getHeight()) / 2f;
+        }
+        return 0;
+    }
+
+    /** Tests a range of enemies, splitting it across the pool */
+    private final class SenseTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+
+        SenseTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= 1) {
+                for (int i = lo; i < hi; i++) {
+                    detected[i] = canSee(i);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SenseTask(lo, mid), new SenseTask(mid, hi));
+        }
+    }
+}
@@ -9,7 +9,8 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.JsonValue;
-import edu.cornell.gdiac.assets.AssetDirectory;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.physics2.Obstacle;
 import edu.cornell.gdiac.physics2.ObstacleSprite;
 import edu.cornell.gdiac.util.PooledList;
 import java.util.ArrayList;
@@ -28,9 +29,18 @@ public class PhysicsController implements ContactListener {
     private World world;
     public PooledList<ObstacleSprite> objects;
     public PooledList<ObstacleSprite> addQueue;
+    /** Objects that need per-tick logic (moving, animated or timed) */
+    private PooledList<ObstacleSprite> updateList;
+
+    // Render interpolation: the sprites of moving bodies with their positions
+    // before the last step. Vectors are pooled by index and reused.
+    private final Array<ObstacleSprite> lerpSprites = new Array<>();
+    private final Array<Vector2> lerpPrevious = new Array<>();
+    /** Sprites given a draw offset by the last interpolate() */
+    private final Array<Interpolated> offsetSprites = new Array<>();
     private static final int WORLD_VELOC = 6;
     private static final int WORLD_POSIT = 2;
-    private AssetDirectory directory;
+    private AssetHandles assets;
     private boolean playerCollidedWithEnemy = false;
     private boolean playerHitByLaser = false;
 
@@ -47,10 +57,6 @@ public class PhysicsController implements ContactListener {
     private float rayLength = 5f;
     //Endpoints of the rays
     private Vector2[] endpoints;
-    private static final int   MAX_SPRAY_VERTICES = 15;
-    private static final float DUPLICATE_EPS2     = 1e-6f;   // squared dist
-    private static final float COLLINEAR_EPS      = 1e-6f;   // cross-area threshold
-    private static final float MIN_POLY_AREA      = 1e-6f;   // world-units
     private static final float ORIGIN_NUDGE       = 0.01f;   // world-units
     //Points
     private float[] points;
@@ -67,13 +73,17 @@ public class PhysicsController implements ContactListener {
     //Index
     private int index;
     private Door goalDoor;
+    /** Wall tiles, used for the spray rays */
+    private SolidGrid solidGrid;
 
 
-    public PhysicsController(float gravityY,int numGoals,AssetDirectory directory) {
-        world = new World(new Vector2(0, gravityY), false);
+    public PhysicsController(float gravityY,int numGoals,AssetHandles assets) {
+        // Idle bodies (landed bombs, sprays, standing enemies) may sleep
+        world = new World(new Vector2(0, gravityY), true);
         world.setContactListener(this);
         objects = new PooledList<>();
         addQueue = new PooledList<>();
+        updateList = new PooledList<>();
         points = new float[6];
         goalPoints = new float[8];
         goalList = new ArrayList<>();
@@ -81,7 +91,7 @@ public class PhysicsController implements ContactListener {
         goal3List = new ArrayList<>();
         //hits = new ArrayList<>();
         index = 0;
-        this.directory = directory;
+        this.assets = assets;
         endpoints = new Vector2[numRays];
     }
 
@@ -97,15 +107,75 @@ public class PhysicsController implements ContactListener {
         this.goalDoor = door;
     }
 
+    public void setSolidGrid(SolidGrid grid) {
+        this.solidGrid = grid;
+    }
+
+    /**
+     * Returns the objects that are updated every tick.
+     *
+     * Static objects without their own logic (walls, goals, grates, lasers)
+     * are not in this list.
+     */
+    public PooledList<ObstacleSprite> getUpdateList() {
+        return updateList;
+    }
+
+    /**
+     * Returns true if the object needs per-tick logic.
+     *
+     * Anything that can move does; static bodies only do if they animate.
+     * Static objects are never removed by marking them, so they must be
+     * removed with {@link #removeObject(ObstacleSprite)}.
+     */
+    private static boolean needsUpdate(ObstacleSprite obj) {
+        return obj.getObstacle().getBodyType() != BodyDef.BodyType.StaticBody
+            || obj instanceof Door;
+    }
+
     public void addObject(ObstacleSprite obj) {
         objects.add(obj);
         obj.getObstacle().activatePhysics(world);
+        if (needsUpdate(obj)) {
+            updateList.add(obj);
+        }
     }
 
     public void removeObject(ObstacleSprite obj) {
         if (obj != null) {
             obj.getObstacle().deactivatePhysics(world);
             objects.remove(obj);
+            updateList.remove(obj);
+        }
+    }
+
+    /**
+     * Builds the body of an object without putting it into play: the body
+     * is inactive and the object is in none of the lists. Bring it in with
+     * {@link #resumeObject(ObstacleSprite)}.
+     */
+    public void addParkedObject(ObstacleSprite obj) {
+        obj.getObstacle().setActive(false);
+        obj.getObstacle().activatePhysics(world);
+    }
+
+    /**
+     * Takes an object out of play but keeps its body, so it can come back
+     * without being rebuilt. The body stays in the world, inactive: it has
+     * no contacts (touching ones end now) and is not stepped.
+     */
+    public void parkObject(ObstacleSprite obj) {
+        obj.getObstacle().setActive(false);
+        objects.remove(obj);
+        updateList.remove(obj);
+    }
+
+    /** Puts an object parked by {@link #parkObject(ObstacleSprite)} back into play */
+    public void resumeObject(ObstacleSprite obj) {
+        objects.add(obj);
+        obj.getObstacle().setActive(true);
+        if (needsUpdate(obj)) {
+            updateList.add(obj);
         }
     }
 
@@ -116,19 +186,19 @@ public class PhysicsController implements ContactListener {
     public void update(float dt) {
         // Add newly queued objects
         while (!addQueue.isEmpty()) {
-            ObstacleSprite spr = addQueue.poll();
-            objects.add(spr);
-            spr.getObstacle().activatePhysics(world);
+            addObject(addQueue.poll());
         }
+        savePreviousPositions();
         // Step the physics world
         world.step(dt, WORLD_VELOC, WORLD_POSIT);
-        // Update each object and remove it if needed
-        Iterator<PooledList<ObstacleSprite>.Entry> iterator = objects.entryIterator();
+        // Update each active object and remove it if needed
+        Iterator<PooledList<ObstacleSprite>.Entry> iterator = updateList.entryIterator();
         while (iterator.hasNext()) {
             PooledList<ObstacleSprite>.Entry entry = iterator.next();
             ObstacleSprite spr = entry.getValue();
             if (spr.getObstacle().isRemoved()) {
                 spr.getObstacle().deactivatePhysics(world);
+                objects.remove(spr);
                 entry.remove();
             } else {
                 spr.update(dt);
@@ -139,59 +209,86 @@ public class PhysicsController implements ContactListener {
         }
     }
 
+    /**
+     * Records the position of every awake dynamic body before a step.
+     */
+    private void savePreviousPositions() {
+        lerpSprites.clear();
+        for (ObstacleSprite spr : updateList) {
+            Obstacle o = spr.getObstacle();
+            if (o.getBody() == null || o.getBodyType() != BodyDef.BodyType.DynamicBody || !o.isAwake()) {
+                continue;
+            }
+            int i = lerpSprites.size;
+            if (i == lerpPrevious.size) {
+                lerpPrevious.add(new Vector2());
+            }
+            lerpSprites.add(spr);
+            lerpPrevious.get(i).set(o.getPosition());
+        }
+    }
+
+    /**
+     * Gives the sprites of the bodies stepped last an offset that draws them
+     * where their bodies were a fraction alpha of the way through that step.
+     * Sprites offset by an earlier call are put back on their bodies first.
+     * The bodies themselves are not moved.
+     *
+     * @param alpha the leftover accumulator time as a fraction of a step
+     */
+    public void interpolate(float alpha) {
+        for (int i = 0; i < offsetSprites.size; i++) {
+            offsetSprites.get(i).setDrawOffset(0, 0);
+        }
+        offsetSprites.clear();
+        for (int i = 0; i < lerpSprites.size; i++) {
+            ObstacleSprite spr = lerpSprites.get(i);
+            Obstacle o = spr.getObstacle();
+            if (!(spr instanceof Interpolated) || o.getBody() == null) {
+                continue;
+            }
+            // From the current position back towards the previous one
+            Vector2 prev = lerpPrevious.get(i);
+            Interpolated sprite = (Interpolated) spr;
+            sprite.setDrawOffset((prev.x - o.getX()) * (1 - alpha), (prev.y - o.getY()) * (1 - alpha));
+            offsetSprites.add(sprite);
+        }
+    }
+
     /**
      * Shoots rays from the chameleon outward in a fan
      * @param obstacle the Chameleon
      * @param angle the angle to shoot the rays
      */
     public void shootRays(Chameleon obstacle, float angle) {
+        if (obstacle.getPosition() == null) {
+            return;
+        }
+        // start from the chameleon’s “nozzle”
+        Vector2 position = obstacle.getPosition();
         float angleStep = (float)(Math.PI/3.0) / numRays;
         for (int i = 0; i < numRays; i++) {
             float angleOffset   = (i - numRays/2.0f) * angleStep;
             float currentAngle  = angle + angleOffset;
             float customRadius  = computeRadiusForAngle(angleOffset);
-            Vector2 direction   = new Vector2(
-                (float)Math.cos(currentAngle),
-                (float)Math.sin(currentAngle)
-            ).nor();
-
-            if (obstacle.getPosition() == null) {
-                return;
-            }
-            // start from the chameleon’s “nozzle”
-            Vector2 position = obstacle.getPosition().cpy();
-//            if (obstacle.isFacingRight()) position.x += 0.9f;
-//            if (obstacle.isFaceUp())     position.y += 0.9f;
-//            if (obstacle.isFaceLeft())   position.x -= 0.9f;
-//            if (obstacle.isFaceDown())   position.y -= 0.9f;
 
             // shoot out to the variable radius
-            Vector2 endPoint = new Vector2(position).add(direction.scl(customRadius));
-
-            RayCastCallback callback = new RayCastCallback() {
-                /**
-                 * Override of reportRayFixture
-                 * @param fixture the fixture we hit
-                 * @param point the point at which we hit
-                 * @param normal normal vector
-                 * @param fraction how far along the ray we hit
-                 * @return fraction if we want to store the hit, -1 to ignore
-                 */
-                @Override
-                public float reportRayFixture(Fixture fixture, Vector2 point, Vector2 normal, float fraction) {
-                    Object userData = fixture.getBody().getUserData();
-                    // If we are a Collision, register the hit and stop the ray there
-                    if (userData instanceof Collision) {
-                        endPoint.set(point);
-                        return fraction;
-                    } else {
-                        return -1f;
-                    }
+            float endX = position.x + (float)Math.cos(currentAngle) * customRadius;
+            float endY = position.y + (float)Math.sin(currentAngle) * customRadius;
+
+            // Only walls stop the spray, and walls are whole tiles
+            if (solidGrid != null) {
+                float t = solidGrid.raycast(position.x, position.y, endX, endY);
+                if (t >= 0) {
+                    endX = position.x + (endX - position.x) * t;
+                    endY = position.y + (endY - position.y) * t;
                 }
-            };
+            }
 
-            world.rayCast(callback, position, endPoint);
-            endpoints[i] = new Vector2(endPoint);
+            if (endpoints[i] == null) {
+                endpoints[i] = new Vector2();
+            }
+            endpoints[i].set(endX, endY);
         }
     }
 
@@ -222,89 +319,21 @@ public class PhysicsController implements ContactListener {
             }
         }
 
-        // 2) Build raw list: origin + all non-null endpoints
-        List<Vector2> raw = new ArrayList<>(endpoints.length + 1);
-        raw.add(origin);
-        for (Vector2 p : endpoints) {
-            if (p != null) {
-                raw.add(p);
-            }
-        }
-        if (raw.size() < 3) {
-            return;  // not enough for a polygon
-        }
-
-        // 3) Remove near-duplicates
-        List<Vector2> filtered = new ArrayList<>(raw.size());
-        Vector2 last = null;
-        for (Vector2 v : raw) {
-            if (last == null || v.dst2(last) > DUPLICATE_EPS2) {
-                filtered.add(v);
-                last = v;
-            }
-        }
-
-
-        // 4) Remove collinear points
-        List<Vector2> noCollinear = new ArrayList<>(filtered.size());
-        int n = filtered.size();
-        for (int i = 0; i < n; i++) {
-            Vector2 prev = filtered.get((i - 1 + n) % n);
-            Vector2 curr = filtered.get(i);
-            Vector2 next = filtered.get((i + 1) % n);
-
-            float cross = Math.abs(
-                (curr.x - prev.x) * (next.y - prev.y)
-                    - (curr.y - prev.y) * (next.x - prev.x)
-            );
-            if (cross > COLLINEAR_EPS) {
-                noCollinear.add(curr);
-            }
-        }
-        filtered = noCollinear;
-
-        // 5) Cap to Box2D’s 8-vertex limit
-        if (filtered.size() > MAX_SPRAY_VERTICES) {
-            filtered = filtered.subList(0, MAX_SPRAY_VERTICES);
-        }
-        if (filtered.size() < 3) {
-            return;
-        }
-
-        // 6) Compute area (shoelace) and bail if too small
-        float area = 0;
-        int m = filtered.size();
-        for (int i = 0; i < m; i++) {
-            Vector2 a = filtered.get(i);
-            Vector2 b = filtered.get((i + 1) % m);
-            area += a.x * b.y - b.x * a.y;
-        }
-        area = Math.abs(area) * 0.5f;
-        if (area < MIN_POLY_AREA) {
+        // 2) Cut the fan into convex pieces; nothing to add if it has no area
+        SprayFan fan = SprayFan.build(origin, endpoints);
+        Vector2 hit = endpoints[numRays/2];
+        if (fan == null || hit == null) {
             return;
         }
 
-        // 7) Flatten and spawn
-        float[] polyVerts = new float[m * 2];
-        for (int i = 0; i < m; i++) {
-            Vector2 v = filtered.get(i);
-            polyVerts[2 * i    ] = v.x;
-            polyVerts[2 * i + 1] = v.y;
-        }
-        Vector2 hit    = endpoints[numRays/2];
+        // 3) Spawn
         float   angle  = hit.cpy().sub(origin).angleDeg();
-        try {
-            Texture sprayTex = directory.getEntry("spray_fade", Texture.class);
-            Texture sprayLaunch = directory.getEntry("spray_launch", Texture.class);
-            sprayTex.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-            sprayLaunch.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-            Animation<TextureRegion> fadeAnim   = createAnimation(sprayTex,  14, 0.29f);
-            Animation<TextureRegion> launchAnim   = createAnimation(sprayLaunch,  3, 0.06f);
-            Spray paintFan = new Spray(polyVerts, units,sprayTex,angle,fadeAnim,launchAnim);
-            addObject(paintFan);
-        } catch (Exception ignored) {
-            // swallowing Box2D-asserts, triangulator AIOOBE, etc.
-        }
+        Texture sprayTex = assets.sprayFade;
+        Texture sprayLaunch = assets.sprayLaunch;
+        Animation<TextureRegion> fadeAnim   = createAnimation(sprayTex,  14, 0.29f);
+        Animation<TextureRegion> launchAnim   = createAnimation(sprayLaunch,  3, 0.06f);
+        Spray paintFan = new Spray(fan, units,sprayTex,angle,fadeAnim,launchAnim);
+        addObject(paintFan);
     }
 
 
@@ -744,6 +773,9 @@ public class PhysicsController implements ContactListener {
         }
         objects.clear();
         addQueue.clear();
+        updateList.clear();
+        lerpSprites.clear();
+        offsetSprites.clear();
         if (world != null) {
             world.dispose();
         }
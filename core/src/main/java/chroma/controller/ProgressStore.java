@@ -0,0 +1,135 @@
+package chroma.controller;
+
+import com.badlogic.gdx.Gdx;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProgressStore
+ * -------------
+ * Which levels the player has completed, kept in memory and saved in the
+ * background.
+ * <p>
+ * Reads are plain memory lookups, so screens may query them every frame.
+ * Changes schedule a write on a background thread; writes that come in
+ * quick succession are merged into one. The file is written next to itself
+ * and then moved into place, so a crash never leaves a half-written file.
+ * The file uses the same format and location as the libGDX "GameProgress"
+ * preferences on desktop.
+ */
+public class ProgressStore {
+    /** How long to wait for more changes before writing */
+    private static final long WRITE_DELAY_MS = 500;
+    private static final String FILE = ".prefs/GameProgress";
+
+    /** The singleton instance of the progress store */
+    private static ProgressStore theStore = null;
+
+    /**
+     * Returns the singleton instance of the progress store
+     *
+     * @return the singleton instance of the progress store
+     */
+    public static ProgressStore getInstance() {
+        if (theStore == null) {
+            theStore = new ProgressStore();
+        }
+        return theStore;
+    }
+
+    private final BitSet completed = new BitSet();
+    private final File file;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "progress-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pendingWrite;
+
+    private ProgressStore() {
+        file = Gdx.files.external(FILE).file();
+    }
+
+    /** Returns true if the level (starting from 1) has been completed */
+    public boolean isCompleted(int level) {
+        return completed.get(level);
+    }
+
+    /** Marks a level (starting from 1) as completed */
+    public void markCompleted(int level) {
+        if (!completed.get(level)) {
+            completed.set(level);
+            scheduleWrite();
+        }
+    }
+
+    /** Forgets all progress */
+    public void clear() {
+        completed.clear();
+        scheduleWrite();
+    }
+
+    /**
+     * Writes any pending change now and stops the writer. Call on shutdown.
+     */
+    public void close() {
+        if (pendingWrite != null && pendingWrite.cancel(false)) {
+            BitSet snapshot = (BitSet) completed.clone();
+            writer.execute(() -> write(snapshot));
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Replaces any queued write with one of the current state */
+    private void scheduleWrite() {
+        if (pendingWrite != null) {
+            pendingWrite.cancel(false);
+        }
+        BitSet snapshot = (BitSet) completed.clone();
+        pendingWrite = writer.schedule(() -> write(snapshot), WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Saves a snapshot; runs on the writer thread */
+    private void write(BitSet snapshot) {
+        Properties properties = new Properties();
+        for (int level = snapshot.nextSetBit(0); level >= 0; level = snapshot.nextSetBit(level + 1)) {
+            properties.setProperty("level" + level + "Completed", "true");
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            File parent = file.getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            try (OutputStream out = new FileOutputStream(temp)) {
+                properties.storeToXML(out, null);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Gdx.app.error("ProgressStore", "Could not save progress", e);
+        }
+    }
+}
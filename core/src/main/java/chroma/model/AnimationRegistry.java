@@ -0,0 +1,99 @@
+package chroma.model;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AnimationRegistry
+ * -----------------
+ * Process-wide cache of sprite-sheet animations, keyed by (sheet, frame count,
+ * frame duration, play mode).
+ * <p>
+ * Every level used to split the same sheets into frames on each construction;
+ * with one GameplayController per level that work and the frame arrays were
+ * repeated for every controller and every reset. Animations handed out here
+ * are shared, so callers must treat them as immutable: never change their
+ * play mode or frame duration, ask for the mode you need instead.
+ * <p>
+ * Safe to use from the level loader thread.
+ */
+public class AnimationRegistry {
+    private static final Map<Key, Animation<TextureRegion>> ANIMATIONS = new ConcurrentHashMap<>();
+
+    private AnimationRegistry() { }
+
+    /**
+     * Returns the shared animation for a horizontal strip sheet.
+     *
+     * @param sheet         the sprite sheet, one row of equally sized frames
+     * @param frameCount    the number of frames in the sheet
+     * @param frameDuration seconds per frame
+     * @param mode          the play mode
+     * @return the shared animation
+     */
+    public static Animation<TextureRegion> get(Texture sheet, int frameCount, float frameDuration,
+                                               Animation.PlayMode mode) {
+        return ANIMATIONS.computeIfAbsent(new Key(sheet, frameCount, frameDuration, mode),
+            key -> split(sheet, frameCount, frameDuration, mode));
+    }
+
+    /**
+     * Drops every cached animation. Call this when the textures they were
+     * split from are unloaded.
+     */
+    public static void clear() {
+        ANIMATIONS.clear();
+    }
+
+    private static Animation<TextureRegion> split(Texture sheet, int frameCount, float frameDuration,
+                                                  Animation.PlayMode mode) {
+        int frameWidth = sheet.getWidth() / frameCount;
+        int frameHeight = sheet.getHeight();
+        TextureRegion[][] tmp = TextureRegion.split(sheet, frameWidth, frameHeight);
+        TextureRegion[] frames = new TextureRegion[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            frames[i] = tmp[0][i];
+        }
+
+        Animation<TextureRegion> animation = new Animation<>(frameDuration, frames);
+        animation.setPlayMode(mode);
+        return animation;
+    }
+
+    /** Cache key; the sheet is compared by identity */
+    private static final class Key {
+        private final Texture sheet;
+        private final int frameCount;
+        private final int durationBits;
+        private final Animation.PlayMode mode;
+
+        Key(Texture sheet, int frameCount, float frameDuration, Animation.PlayMode mode) {
+            this.sheet = sheet;
+            this.frameCount = frameCount;
+            this.durationBits = Float.floatToIntBits(frameDuration);
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return sheet == key.sheet && frameCount == key.frameCount
+                && durationBits == key.durationBits && mode == key.mode;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(sheet);
+            hash = 31 * hash + frameCount;
+            hash = 31 * hash + durationBits;
+            return 31 * hash + mode.ordinal();
+        }
+    }
+}
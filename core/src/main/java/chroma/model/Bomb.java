@@ -1,11 +1,11 @@
 package chroma.model;
 
+import chroma.controller.AudioBus;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import com.badlogic.gdx.utils.JsonValue;
@@ -48,6 +48,9 @@ public class Bomb extends ObstacleSprite {
     private float timeAlive;
 
     private Vector2 startPos;
+    /** Cached draw center and batch color so drawing does not allocate */
+    private final Vector2 drawCenter = new Vector2();
+    private final Color savedColor = new Color();
 
     private float size;
 
@@ -58,20 +61,25 @@ public class Bomb extends ObstacleSprite {
     private boolean flying;
     private final float initialVz;
     private final float arcDuration;
+    /** Horizontal speed in physics units */
+    private static final float SPEED = 6f;
 
+    /**
+     * Creates a bomb that is not in play yet; see {@link #launch}. Bombs are
+     * meant to be reused, so this builds everything that does not change
+     * from one throw to the next.
+     */
     public Bomb(float units,
                 JsonValue settings,
-                Vector2 startPos,
-                Vector2 velocity,
-                Vector2 targetPos,Texture flyTex,
+                Texture flyTex,
                 Texture splatterTex,
                 Sound splatterSound, Animation<TextureRegion>fadeAnim) {
         this.fadeAnim = fadeAnim;
-        this.startPos = new Vector2(startPos);
+        this.startPos = new Vector2();
         size = settings.getFloat("size");
         float radius = size * units / 2.0f;
 
-        obstacle = new WheelObstacle(targetPos.x, targetPos.y, size / 2);
+        obstacle = new WheelObstacle(0, 0, size / 2);
 
         obstacle.setPhysicsUnits(units);
         // For manual movement, a Kinematic body is often best:
@@ -86,24 +94,41 @@ public class Bomb extends ObstacleSprite {
         mesh.set(-radius, -radius, 2 * radius, 2 * radius);
         int count = mesh.vertexCount();
         for (int i = 0; i < count; i++) {
-            mesh.setColor(i, new Color( 1.0f, 1.0f, 1.0f, 1f));
+            mesh.setColor(i, Color.WHITE);
         }
         // Store arc data
-        this.timeAlive   = 0f;
-        this.velocity    = new Vector2(velocity);
-        this.target      = new Vector2(targetPos);
-        this.z           = 0f;
-        this.vz          = 20f;  // initial vertical speed
-        this.initialVz   = this.vz;
+        this.velocity    = new Vector2();
+        this.target      = new Vector2();
+        this.initialVz   = 20f;  // initial vertical speed
         this.arcDuration = 2 * initialVz / GRAVITY;
-        this.flying      = true;
 
         this.flyTex   = flyTex;
         this.splatterTex = splatterTex;
-        setTexture(flyTex);
         this.splatterSound = splatterSound;
     }
 
+    /**
+     * Throws the bomb from a start position towards a target, resetting it
+     * from any earlier throw. The body is placed on the target, where the
+     * paint will land.
+     *
+     * @param rotation the splatter's rotation in degrees once it lands
+     */
+    public void launch(Vector2 start, Vector2 targetPos, float rotation) {
+        startPos.set(start);
+        target.set(targetPos);
+        velocity.set(targetPos).sub(start).nor().scl(SPEED);
+        obstacle.setPosition(targetPos);
+
+        timeAlive = 0f;
+        z = 0f;
+        vz = initialVz;
+        flying = true;
+        alpha = 1f;
+        splatterRotation = rotation;
+        setTexture(flyTex);
+    }
+
     public boolean isExpired() {
         return timeAlive >= LIFETIME;
     }
@@ -162,10 +187,8 @@ public class Bomb extends ObstacleSprite {
             vz = 0;
             flying = false;
             setTexture(splatterTex);
-            // Randomize splatter rotation
-            splatterRotation = MathUtils.random(0f, 360f);
 
-            splatterSound.play();
+            AudioBus.getInstance().play(splatterSound);
 //            beginFade();
         }
 
@@ -191,7 +214,7 @@ public class Bomb extends ObstacleSprite {
             float iy  = startPos.y + t * (target.y - startPos.y);
             float peak = 2f;
             float offset = 4 * peak * t * (1 - t);
-            center = new Vector2(ix, iy + offset);
+            center = drawCenter.set(ix, iy + offset);
         } else {
             center = target;
         }
@@ -208,7 +231,7 @@ public class Bomb extends ObstacleSprite {
         }
         transform.preTranslate(center.x * u, center.y * u);
 
-        Color saved = new Color(batch.getColor());
+        Color saved = savedColor.set(batch.getColor());
 
         // Apply fading alpha; keep existing RGB
         batch.setColor(saved.r, saved.g, saved.b, alpha);
@@ -1,5 +1,6 @@
 package chroma.model;
 
+import chroma.controller.AudioBus;
 import chroma.controller.InputController;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
@@ -21,7 +22,7 @@ import edu.cornell.gdiac.math.Path2;
 import edu.cornell.gdiac.physics2.CapsuleObstacle;
 import edu.cornell.gdiac.physics2.ObstacleSprite;
 
-public class Chameleon extends ObstacleSprite {
+public class Chameleon extends ObstacleSprite implements Interpolated {
     /** The initializing data (to avoid magic numbers) */
     private final JsonValue data;
     /** The width of Chameleon's avatar */
@@ -142,6 +143,23 @@ public class Chameleon extends ObstacleSprite {
      */
     public Vector2 getPosition(){return position;}
 
+    /** How far from the body the sprite is drawn this frame */
+    private final Vector2 drawOffset = new Vector2();
+    private final Vector2 drawCache = new Vector2();
+
+    @Override
+    public void setDrawOffset(float dx, float dy) {
+        drawOffset.set(dx, dy);
+    }
+
+    /**
+     * Returns where the chameleon is drawn this frame, in world units. The
+     * vector is reused between calls.
+     */
+    public Vector2 getDrawPosition() {
+        return drawCache.set(obstacle.getX() + drawOffset.x, obstacle.getY() + drawOffset.y);
+    }
+
     /**
      * Returns the left/right movement of this character.
      *
@@ -328,6 +346,9 @@ public class Chameleon extends ObstacleSprite {
         // Ensure the body is dynamic so it can move.
         obstacle.setBodyType(BodyDef.BodyType.DynamicBody);
         obstacle.setFixedRotation(true);
+        // The world allows sleeping; keep the player awake so static sensors
+        // (lasers, goals) always see contacts with her.
+        obstacle.setSleepingAllowed(false);
         obstacle.setPhysicsUnits(units);
         obstacle.setUserData(this);
         obstacle.setName("chameleon");
@@ -421,7 +442,7 @@ public class Chameleon extends ObstacleSprite {
             setVerticalMovement(0f);
             setShooting(false);
             setAiming(false);
-            walkSound.stop();
+            AudioBus.getInstance().setPlaying(walkSound, false);
             applyForce();
             return;
         }
@@ -517,11 +538,11 @@ public class Chameleon extends ObstacleSprite {
                 animTime += dt;
                 currentFrame = bankIdle.getKeyFrame(animTime, true);
             }
-            walkSound.stop();
+            AudioBus.getInstance().setPlaying(walkSound, false);
         } else {
             animTime += dt;
 
-            walkSound.play();
+            AudioBus.getInstance().setPlaying(walkSound, true);
 
             if (Math.abs(vmove) > Math.abs(hmove)) {
                 if (vmove > 0) {
@@ -564,16 +585,11 @@ public class Chameleon extends ObstacleSprite {
             mesh.setColor(i, target);
         }
 
-        // Create an Affine2 transform for rotation
-        Affine2 transform = new Affine2();
-        transform.setToRotation(orientation);
-
-
 //        Rectangle bounds = mesh.computeBounds();
         float drawWidth  = currentFrame.getRegionWidth() * drawScale;
         float drawHeight = currentFrame.getRegionHeight() * drawScale;
-        float px = obstacle.getX() * obstacle.getPhysicsUnits();
-        float py = obstacle.getY() * obstacle.getPhysicsUnits();
+        float px = (obstacle.getX() + drawOffset.x) * obstacle.getPhysicsUnits();
+        float py = (obstacle.getY() + drawOffset.y) * obstacle.getPhysicsUnits();
 
         if (faceRight || faceLeft) {
             drawWidth *= 0.95f;
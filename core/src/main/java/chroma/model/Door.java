@@ -1,5 +1,6 @@
 package chroma.model;
 
+import chroma.controller.AudioBus;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.Animation;
@@ -28,6 +29,8 @@ public class Door extends ObstacleSprite {
 
     private float animTime = 0f;
     private TextureRegion currentFrame;
+    /** Cached center; returned by {@link #getCenter()} */
+    private final Vector2 center = new Vector2();
 
     private final float units;      // physicsUnits
     private static final float SIZE = 4f; // door size in world units
@@ -62,10 +65,13 @@ public class Door extends ObstacleSprite {
         mesh.set(-half, -half, half*2, half*2);
     }
 
+    /**
+     * Returns the center of the door in world units.
+     *
+     * The vector is reused between calls; copy it if you need to keep it.
+     */
     public Vector2 getCenter() {
-        float centerX = obstacle.getX();
-        float centerY = obstacle.getY();
-        return new Vector2(centerX, centerY);
+        return center.set(obstacle.getX(), obstacle.getY());
     }
 
     public void setChameleon(Chameleon cham) {
@@ -77,7 +83,7 @@ public class Door extends ObstacleSprite {
      * Trigger door opening: switch to openAnim and set sensor
      */
     public void open() {
-        openSound.play();
+        AudioBus.getInstance().play(openSound);
         if (!opened) {
             opened = true;
             animTime = 0f;
@@ -20,7 +20,7 @@ import edu.cornell.gdiac.physics2.ObstacleSprite;
 
 import java.util.List;
 
-public class Enemy extends ObstacleSprite {
+public class Enemy extends ObstacleSprite implements Interpolated {
     public enum Type {
         GUARD, SWEEPER, CAMERA1, CAMERA2
     }
@@ -64,6 +64,8 @@ public class Enemy extends ObstacleSprite {
 
     /** Cache for internal force calculations */
     private final Vector2 forceCache = new Vector2();
+    /** How far from the body the sprite is drawn this frame */
+    private final Vector2 drawOffset = new Vector2();
     private final Affine2 flipCache = new Affine2();
 
     // ENEMY TYPE
@@ -319,6 +321,11 @@ public class Enemy extends ObstacleSprite {
         this.blueRedTime = MathUtils.clamp(time, 0f, blueRedAnim.getAnimationDuration());
     }
 
+    @Override
+    public void setDrawOffset(float dx, float dy) {
+        drawOffset.set(dx, dy);
+    }
+
     @Override
     public void draw(SpriteBatch batch) {
 //        if (blueRedTime != 0) {
@@ -337,25 +344,27 @@ public class Enemy extends ObstacleSprite {
 //                0);
 //        }
 
+        // Key frames are shared between enemies; the flip below is re-applied
+        // on every draw, so we can draw them directly without copying.
         TextureRegion frame = null;
 
         if (sideFrame != -1) {
             if (blue) {
-                frame = new TextureRegion(sideAnimBlue.getKeyFrames()[sideFrame]);
+                frame = sideAnimBlue.getKeyFrames()[sideFrame];
             } else {
-                frame = new TextureRegion(sideAnimRed.getKeyFrames()[sideFrame]);
+                frame = sideAnimRed.getKeyFrames()[sideFrame];
             }
         } else if (frontFrame != -1) {
             if (blue) {
-                frame = new TextureRegion(frontAnimBlue.getKeyFrames()[frontFrame]);
+                frame = frontAnimBlue.getKeyFrames()[frontFrame];
             } else {
-                frame = new TextureRegion(frontAnimRed.getKeyFrames()[frontFrame]);
+                frame = frontAnimRed.getKeyFrames()[frontFrame];
             }
         } else if (backFrame != -1) {
             if (blue) {
-                frame = new TextureRegion(backAnimBlue.getKeyFrames()[backFrame]);
+                frame = backAnimBlue.getKeyFrames()[backFrame];
             } else {
-                frame = new TextureRegion(backAnimRed.getKeyFrames()[backFrame]);
+                frame = backAnimRed.getKeyFrames()[backFrame];
             }
         }
 
@@ -363,8 +372,8 @@ public class Enemy extends ObstacleSprite {
 
         float drawWidth = frame.getRegionWidth() * drawScale;
         float drawHeight = frame.getRegionHeight() * drawScale;
-        float px = obstacle.getX() * obstacle.getPhysicsUnits();
-        float py = obstacle.getY() * obstacle.getPhysicsUnits();
+        float px = (obstacle.getX() + drawOffset.x) * obstacle.getPhysicsUnits();
+        float py = (obstacle.getY() + drawOffset.y) * obstacle.getPhysicsUnits();
 
         if (!faceRight) {
             if (frame.isFlipX()) frame.flip(true, false);
@@ -0,0 +1,72 @@
+package chroma.model;
+
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import edu.cornell.gdiac.math.Path2;
+import edu.cornell.gdiac.physics2.Obstacle;
+
+/**
+ * FanObstacle
+ * -----------
+ * A body made of the convex pieces of a {@link SprayFan}, one fixture per
+ * piece. Unlike a PolygonObstacle it does not triangulate: a typical spray
+ * needs two or three fixtures instead of a dozen triangles.
+ */
+public class FanObstacle extends Obstacle {
+    /** The nozzle followed by the rim points, in body coordinates */
+    private final float[] vertices;
+    private final int[] pieces;
+    private Fixture[] geoms;
+    /** Scratch for the vertices of one piece */
+    private final float[] piece = new float[2 * SprayFan.MAX_PIECE_VERTICES];
+
+    /**
+     * Creates the obstacle for a fan.
+     *
+     * @param vertices the fan's vertices in body coordinates; not copied
+     * @param pieces   the fan's pieces, as from {@link SprayFan#getPieces()}
+     */
+    public FanObstacle(float[] vertices, int[] pieces) {
+        super(0, 0);
+        this.vertices = vertices;
+        this.pieces = pieces;
+        outline = new Path2(vertices);
+        outline.closed = true;
+    }
+
+    @Override
+    protected void createFixtures() {
+        if (body == null) {
+            return;
+        }
+        releaseFixtures();
+
+        geoms = new Fixture[pieces.length - 1];
+        PolygonShape shape = new PolygonShape();
+        for (int k = 0; k < geoms.length; k++) {
+            int n = 0;
+            piece[n++] = vertices[0];
+            piece[n++] = vertices[1];
+            for (int v = pieces[k]; v <= pieces[k + 1]; v++) {
+                piece[n++] = vertices[2 * v];
+                piece[n++] = vertices[2 * v + 1];
+            }
+            shape.set(piece, 0, n);
+            fixture.shape = shape;
+            geoms[k] = body.createFixture(fixture);
+        }
+        fixture.shape = null;
+        shape.dispose();
+        markDirty(false);
+    }
+
+    @Override
+    protected void releaseFixtures() {
+        if (geoms != null && body != null) {
+            for (Fixture geom : geoms) {
+                body.destroyFixture(geom);
+            }
+        }
+        geoms = null;
+    }
+}
@@ -0,0 +1,17 @@
+package chroma.model;
+
+/**
+ * A sprite whose body moves, drawn between physics steps.
+ * <p>
+ * Frames rarely line up with the fixed step, so the physics controller
+ * works out where each moving body was at the moment being drawn and hands
+ * the sprite an offset from its body. The body itself is never moved for
+ * drawing, so the simulation only ever sees stepped positions.
+ */
+public interface Interpolated {
+    /**
+     * Sets how far from its body the sprite is drawn, in world units. The
+     * offset holds until it is set again; (0, 0) draws at the body.
+     */
+    void setDrawOffset(float dx, float dy);
+}
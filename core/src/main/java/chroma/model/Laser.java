@@ -5,41 +5,80 @@ import com.badlogic.gdx.physics.box2d.Body;
 import edu.cornell.gdiac.graphics.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
+import edu.cornell.gdiac.math.Poly2;
 import edu.cornell.gdiac.physics2.PolygonObstacle;
 import edu.cornell.gdiac.physics2.ObstacleSprite;
 
 /**
- * A 1×1-tile sensor that kills the player on contact when active.
+ * A laser beam that kills the player on contact when active.
+ * <p>
+ * A beam is a straight run of 1×1 laser tiles sharing a single static sensor
+ * body. Every tile keeps its own hit strip, so a merged beam is lethal in
+ * exactly the same places as the individual tiles were.
  */
 public class Laser extends ObstacleSprite {
     private static final float SIZE = 1f;       // in world units (tile size)
+    private static final float VERTICAL = 0.2f; // half width of a tile's hit strip
     private final float units;                  // physicsUnits
-    private final TextureRegion region;
+    private final TextureRegion[] regions;
+    /** Tile centers in world units */
+    private final Vector2[] centers;
     private boolean active = false;
 
+    /** Creates a single-tile laser. */
     public Laser(float units, TextureRegion region, Vector2 center) {
-        this.units  = units;
-        this.region = region;
+        this(units, new TextureRegion[] { region }, new Vector2[] { center });
+    }
+
+    /**
+     * Creates a laser beam from a run of tiles.
+     *
+     * @param units   physics units
+     * @param regions the texture of each tile
+     * @param centers the center of each tile in world units
+     */
+    public Laser(float units, TextureRegion[] regions, Vector2[] centers) {
+        this.units   = units;
+        this.regions = regions;
+        this.centers = centers;
 
-        // Build 1×1-unit static polygon, centered on tile
+        // One hit strip per tile, relative to the first tile's center
         float half = SIZE / 2f;
-        float vertical = 0.2f;
-        float[] verts = { -vertical, -half,  vertical, -half,  vertical, -vertical,  -vertical, -vertical };
-        PolygonObstacle poly = new PolygonObstacle(verts);
+        Vector2 origin = centers[0];
+        float[] verts = new float[centers.length * 8];
+        short[] indices = new short[centers.length * 6];
+        for (int i = 0; i < centers.length; i++) {
+            float dx = centers[i].x - origin.x;
+            float dy = centers[i].y - origin.y;
+            int v = i * 8;
+            verts[v    ] = dx - VERTICAL;  verts[v + 1] = dy - half;
+            verts[v + 2] = dx + VERTICAL;  verts[v + 3] = dy - half;
+            verts[v + 4] = dx + VERTICAL;  verts[v + 5] = dy - VERTICAL;
+            verts[v + 6] = dx - VERTICAL;  verts[v + 7] = dy - VERTICAL;
+
+            short b = (short) (i * 4);
+            int t = i * 6;
+            indices[t    ] = b;
+            indices[t + 1] = (short) (b + 1);
+            indices[t + 2] = (short) (b + 2);
+            indices[t + 3] = b;
+            indices[t + 4] = (short) (b + 2);
+            indices[t + 5] = (short) (b + 3);
+        }
+
+        PolygonObstacle poly = new PolygonObstacle(new Poly2(verts, indices));
         poly.setBodyType(BodyDef.BodyType.StaticBody);
         poly.setPhysicsUnits(units);
-        poly.setPosition(center);
+        poly.setPosition(origin);
         poly.setUserData(this);           // for collision lookup
         poly.setSensor(true);             // no physical blocking
+        poly.setName("laser");
         this.obstacle = poly;
 
         // Match rendering mesh to physics bounds
         mesh.set(-half, -half, SIZE, SIZE);
-        // Start deactivated
-//        obstacle.getBody().setActive(false);
     }
 
-    /** Turn the laser on or off. */
     /** Turn the laser on or off. */
     public void toggle(boolean on) {
         this.active = on;
@@ -52,6 +91,9 @@ public class Laser extends ObstacleSprite {
 
     public boolean isActive() { return active; }
 
+    /** Returns the number of tiles in this beam */
+    public int getTileCount() { return centers.length; }
+
     @Override
     public void update(float dt) {
         // no animation for now
@@ -61,8 +103,11 @@ public class Laser extends ObstacleSprite {
     @Override
     public void draw(SpriteBatch batch) {
         if (!active) { return; }  // draw only when on
-        float px = obstacle.getX() * units - (SIZE*units)/2f;
-        float py = obstacle.getY() * units - (SIZE*units)/2f;
-        batch.draw(region, px, py, SIZE*units, SIZE*units);
+        float size = SIZE * units;
+        for (int i = 0; i < centers.length; i++) {
+            float px = centers[i].x * units - size / 2f;
+            float py = centers[i].y * units - size / 2f;
+            batch.draw(regions[i], px, py, size, size);
+        }
     }
 }
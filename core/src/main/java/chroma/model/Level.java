@@ -1,12 +1,15 @@
 package chroma.model;
 
 import chroma.controller.LevelSelector;
+import chroma.controller.NavGraph;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 
@@ -40,6 +43,14 @@ public class Level {
     private List<Grate> grates;
     private List<Laser> lasers;
     private List<Collision> collision;
+    /** Bitmap of the collision-layer tiles, for grid raycasts */
+    private SolidGrid solidGrid = new SolidGrid(0, 0);
+    /** Nearest-walkable and wall-distance tables for the guards */
+    private NavField navField;
+    /** The guards' navigation graph, built with the level */
+    private NavGraph navGraph;
+    /** Whether guards plan with Jump Point Search instead of A* */
+    private boolean jumpPoints;
     private String[] levelfiles;
     private GoalCollision goalCollisions;
     private GoalCollision goal2Collisions;
@@ -51,35 +62,19 @@ public class Level {
 //    public static final int TILE_HEIGHT = 16;
     Set<Point> bombableTiles = new HashSet<>();
 
-    /**
-     * gid →  corresponding tile
-     */
-    private Map<Integer, TextureRegion> tileRegions;
-
-    private static final Set<Integer> GRATE_GIDS = Set.of(
-        659, 660, 661, 662, 663, 664, 665, 666,667, 668,
-        669,670, 671, 672,
-        697, 698, 699, 700,
-        703, 704,705, 706, 707, 708, 709,710,
-        735, 736, 737, 738, 739, 740,
-        741, 742, 743, 744,747, 748,
-        773, 774, 775, 776, 777, 778,
-        779, 780,781, 782,785,786,
-        811, 812, 813, 814,
-        817, 818,819, 820, 821, 822, 823, 824,
-        849, 850, 851, 852, 853, 854,
-        857, 858, 859,
-        855, 856,860, 861, 862,
-        927, 928, 929, 930,
-        965, 966, 967, 968,
-        1003, 1004, 1005, 1006,
-        1041, 1042, 1043, 1044,
-        1079, 1080, 1081, 1082,
-        1117, 1118, 1119, 1120,
-        701, 702, 815, 816
-    );
+    // Texture state to apply on the GL thread in finishOnGlThread()
+    private final Array<Texture> nearestTextures = new Array<>();
+    private final Array<Texture> clampedTextures = new Array<>();
+
+    /** Shared gid → tile region and kind table */
+    private TileTable tiles;
+
     /**
      * Constructs a new Level by loading the JSON configuration through the provided LevelSelector.
+     * <p>
+     * The constructor only does CPU work (parsing, tile lookup, triangulation,
+     * animation setup), so it may run off the render thread. Call
+     * {@link #finishOnGlThread()} on the render thread before using the level.
      *
      * @param directory the AssetDirectory used for loading textures and JSON files.
      * @param units the physics units conversion factor.
@@ -108,7 +103,12 @@ public class Level {
         // constant.json
         JsonValue globalConstants = directory.getEntry("platform-constants", JsonValue.class);
 
-        initTileRegions(directory, 16);
+        initTileTable(directory, globalConstants.get("tileset"));
+
+        // Path planner: the level may override the default from the constants
+        String planner = constants.getString("planner",
+            globalConstants.get("world").getString("planner", "astar"));
+        jumpPoints = planner.equals("jps");
 
         levelfiles = selector.getLevelFiles();
 
@@ -124,13 +124,13 @@ public class Level {
 
             int layerWidth = backgroundData.getInt("width");
             int layerHeight = backgroundData.getInt("height");
-            JsonValue data = backgroundData.get("data");
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            int[] data = backgroundData.get("data").asIntArray();
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) continue;                                 // skip empty
 
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;                         // no tile defined
 
                 // compute tile grid position
@@ -138,7 +138,7 @@ public class Level {
                 int ty = i / layerWidth;
                 ty = layerHeight - 1 - ty;                            // flip Y origin
 
-                if (GRATE_GIDS.contains(gid)) {
+                if (tiles.is(gid, TileTable.GRATE)) {
                     Grate grate = new Grate(region, units, tx, ty);
                     grates.add(grate);
                 } else {
@@ -154,20 +154,20 @@ public class Level {
         //Goal1
         JsonValue goalTileLayer = findLayer(constants, "goal1");
         if (goalTileLayer != null && goalTileLayer.has("data")) {
-            JsonValue goalTileData = goalTileLayer.get("data");
+            int[] goalTileData = goalTileLayer.get("data").asIntArray();
             int layerWidth  = goalTileLayer.getInt("width");
             int layerHeight = goalTileLayer.getInt("height");
 
             List<Vector2> goalRegion = new ArrayList<>();
-            for (int i = 0; i < goalTileData.size; i++) {
-                int gid = goalTileData.getInt(i);
+            for (int i = 0; i < goalTileData.length; i++) {
+                int gid = goalTileData[i];
                 if (gid == 0) continue; // skip empty
 
 
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;
-                if (goalTileData.getInt(i) == 0) continue;
+                if (goalTileData[i] == 0) continue;
                 int tx = i % layerWidth;
                 int ty = layerHeight - 1 - (i / layerWidth);
                 BackgroundTile tile = new BackgroundTile(region, units);
@@ -186,7 +186,7 @@ public class Level {
                 Texture fullTexture = directory.getEntry("pinkmachine", Texture.class);
                 Texture texture25 = directory.getEntry("blackmachine25", Texture.class);
                 Texture texture60 = directory.getEntry("blackmachine60", Texture.class);
-                fullTexture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+                nearest(fullTexture);
                 Texture notFull = directory.getEntry("blackmachine",Texture.class);
 
                 GoalCollision goal = (new GoalCollision(goalCenter,units, notFull,fullTexture,texture25,texture60));
@@ -198,17 +198,17 @@ public class Level {
         }
         JsonValue goal2TileLayer = findLayer(constants, "goal2");
         if (goal2TileLayer != null && goal2TileLayer.has("data")) {
-            JsonValue goal2TileData = goal2TileLayer.get("data");
+            int[] goal2TileData = goal2TileLayer.get("data").asIntArray();
             int layerWidth  = goal2TileLayer.getInt("width");
             int layerHeight = goal2TileLayer.getInt("height");
 
             List<Vector2> goalRegion = new ArrayList<>();
-            for (int i = 0; i < goal2TileData.size; i++) {
-                int gid = goal2TileData.getInt(i);
+            for (int i = 0; i < goal2TileData.length; i++) {
+                int gid = goal2TileData[i];
                 if (gid == 0) continue; // skip empty
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;
-                if (goal2TileData.getInt(i) == 0) continue;
+                if (goal2TileData[i] == 0) continue;
                 int tx = i % layerWidth;
                 int ty = layerHeight - 1 - (i / layerWidth);
                 BackgroundTile tile = new BackgroundTile(region, units);
@@ -225,7 +225,7 @@ public class Level {
                 Vector2 goalCenter = new Vector2(minX + 2f, minY + 2.25f);
 
                 Texture fullTexture = directory.getEntry("pinkmachine", Texture.class);
-                fullTexture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+                nearest(fullTexture);
                 Texture notFull = directory.getEntry("blackmachine",Texture.class);
                 Texture texture25 = directory.getEntry("blackmachine25", Texture.class);
                 Texture texture60 = directory.getEntry("blackmachine60", Texture.class);
@@ -237,17 +237,17 @@ public class Level {
         }
         JsonValue goal3TileLayer = findLayer(constants, "goal3");
         if (goal3TileLayer != null && goal3TileLayer.has("data")) {
-            JsonValue goal3TileData = goal3TileLayer.get("data");
+            int[] goal3TileData = goal3TileLayer.get("data").asIntArray();
             int layerWidth  = goal3TileLayer.getInt("width");
             int layerHeight = goal3TileLayer.getInt("height");
 
             List<Vector2> goalRegion = new ArrayList<>();
-            for (int i = 0; i < goal3TileData.size; i++) {
-                int gid = goal3TileData.getInt(i);
+            for (int i = 0; i < goal3TileData.length; i++) {
+                int gid = goal3TileData[i];
                 if (gid == 0) continue; // skip empty
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;
-                if (goal3TileData.getInt(i) == 0) continue;
+                if (goal3TileData[i] == 0) continue;
                 int tx = i % layerWidth;
                 int ty = layerHeight - 1 - (i / layerWidth);
                 BackgroundTile tile = new BackgroundTile(region, units);
@@ -264,7 +264,7 @@ public class Level {
                 Vector2 goalCenter = new Vector2(minX + 2f, minY + 2.25f);
 
                 Texture fullTexture = directory.getEntry("pinkmachine", Texture.class);
-                fullTexture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+                nearest(fullTexture);
                 Texture notFull = directory.getEntry("blackmachine",Texture.class);
                 Texture texture25 = directory.getEntry("blackmachine25", Texture.class);
                 Texture texture60 = directory.getEntry("blackmachine60", Texture.class);
@@ -280,10 +280,10 @@ public class Level {
 
             int layerWidth  = lightsData.getInt("width");
             int layerHeight = lightsData.getInt("height");
-            JsonValue data  = lightsData.get("data");
+            int[] data  = lightsData.get("data").asIntArray();
 
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) continue;// skip empty tiles
 
                 // compute tile coordinates in grid
@@ -292,9 +292,9 @@ public class Level {
                 ty = layerHeight - 1 - ty;                        // flip Y origin
                 bombableTiles.add(new Point(tx, ty));
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;
-                int tileValue = data.getInt(i);
+                int tileValue = data[i];
                 // create a 1×1 tile-based Terrain at (tx,ty)
                 if (tileValue != 0) {
                     BackgroundTile light = new BackgroundTile(region,units);
@@ -311,10 +311,10 @@ public class Level {
 
             int layerWidth  = wallsData1.getInt("width");
             int layerHeight = wallsData1.getInt("height");
-            JsonValue data  = wallsData1.get("data");
+            int[] data  = wallsData1.get("data").asIntArray();
 
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) continue;                           // skip empty tiles
 
                 // compute tile coordinates in grid
@@ -323,9 +323,9 @@ public class Level {
                 ty = layerHeight - 1 - ty;                        // flip Y origin
                 bombableTiles.add(new Point(tx, ty));
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;                     // no matching region
-                int tileValue = data.getInt(i);
+                int tileValue = data[i];
                 // create a 1×1 tile-based Terrain at (tx,ty)
                 if (tileValue != 0) {
                     float[] coords = createCoords(tx, ty);
@@ -342,10 +342,10 @@ public class Level {
 
             int layerWidth  = wallsData2.getInt("width");
             int layerHeight = wallsData2.getInt("height");
-            JsonValue data  = wallsData2.get("data");
+            int[] data  = wallsData2.get("data").asIntArray();
 
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) continue;                           // skip empty tiles
 
                 // compute tile coordinates in grid
@@ -354,9 +354,9 @@ public class Level {
                 ty = layerHeight - 1 - ty;                        // flip Y origin
                 bombableTiles.add(new Point(tx, ty));
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;                     // no matching region
-                int tileValue = data.getInt(i);
+                int tileValue = data[i];
                 // create a 1×1 tile-based Terrain at (tx,ty)
                 if (tileValue != 0) {
                     float[] coords = createCoords(tx, ty);
@@ -374,10 +374,10 @@ public class Level {
 
             int layerWidth  = wallsTopData.getInt("width");
             int layerHeight = wallsTopData.getInt("height");
-            JsonValue data  = wallsTopData.get("data");
+            int[] data  = wallsTopData.get("data").asIntArray();
 
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) continue;                           // skip empty tiles
 
                 // compute tile coordinates in grid
@@ -387,9 +387,9 @@ public class Level {
                 bombableTiles.add(new Point(tx, ty));
 
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;                     // no matching region
-                int tileValue = data.getInt(i);
+                int tileValue = data[i];
                 // create a 1×1 tile-based Terrain at (tx,ty)
                 if (tileValue != 0) {
                     BackgroundTile wall = new BackgroundTile(region,units);
@@ -406,10 +406,11 @@ public class Level {
 
             int layerWidth  = collisionData.getInt("width");
             int layerHeight = collisionData.getInt("height");
-            JsonValue data  = collisionData.get("data");
+            int[] data  = collisionData.get("data").asIntArray();
+            solidGrid = new SolidGrid(layerWidth, layerHeight);
 
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) continue;                           // skip empty tiles
 
                 // compute tile coordinates in grid
@@ -419,28 +420,42 @@ public class Level {
                 bombableTiles.add(new Point(tx, ty));
 
                 // lookup the sub-texture for this gid
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) continue;                     // no matching region
-                int tileValue = data.getInt(i);
+                int tileValue = data[i];
                 // create a 1×1 tile-based Collision at (tx,ty)
                 if (tileValue != 0) {
                     float[] coords = createCoords(tx, ty);
                     Collision block = new Collision(coords, units,new Vector2(tx,ty));
                     collision.add(block);
+                    solidGrid.setSolid(tx, ty);
                 }
             }
         }
 
+        // Guards move between the grid points of the whole world
+        JsonValue worldBounds = globalConstants.get("world").get("bounds");
+        navField = new NavField(solidGrid, (int) worldBounds.getFloat(0) + 1, (int) worldBounds.getFloat(1) + 1);
+
+        // Goal machines block guards too; their tiles are known from the goal layers
+        SolidGrid machines = new SolidGrid(solidGrid.getWidth(), solidGrid.getHeight());
+        for (List<BackgroundTile> machine : Arrays.asList(goalTiles, goal2Tiles, goal3Tiles)) {
+            for (BackgroundTile tile : machine) {
+                machines.setSolid(Math.round(tile.getX() / units), Math.round(tile.getY() / units));
+            }
+        }
+        navGraph = NavGraph.build(navField, solidGrid, machines);
+
         // ---------- Door ----------
         JsonValue doorLayer = findLayer(constants, "door");
         if (doorLayer != null && doorLayer.has("data")) {
-            JsonValue doorData = doorLayer.get("data");
+            int[] doorData = doorLayer.get("data").asIntArray();
             int layerWidth  = doorLayer.getInt("width");
             int layerHeight = doorLayer.getInt("height");
 
             List<Vector2> doorTiles = new ArrayList<>();
-            for (int i = 0; i < doorData.size; i++) {
-                if (doorData.getInt(i) == 0) continue;
+            for (int i = 0; i < doorData.length; i++) {
+                if (doorData[i] == 0) continue;
                 int tx = i % layerWidth;
                 int ty = layerHeight - 1 - (i / layerWidth);
                 doorTiles.add(new Vector2(tx, ty));
@@ -454,9 +469,9 @@ public class Level {
                 Vector2 doorCenter = new Vector2(minX + 2f, minY + 2f);
 
                 Texture ventSheet = directory.getEntry("vent", Texture.class);
-                ventSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+                nearest(ventSheet);
                 Texture chameleonFallSheet = directory.getEntry("ventFall", Texture.class);
-                ventSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+                nearest(ventSheet);
                 Animation<TextureRegion> chameleonFallAnim = createAnimation(chameleonFallSheet, 24, 0.08f);
 
                 TextureRegion[] frames = createAnimation(ventSheet, 22, 0.1f).getKeyFrames();
@@ -502,10 +517,10 @@ public class Level {
         Texture downSheet  = directory.getEntry("chameleonDownWalk", Texture.class);
         Texture idleSheet  = directory.getEntry("chameleonIdleSheet", Texture.class);
 
-        walkSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        upSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        downSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        idleSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        nearest(walkSheet);
+        nearest(upSheet);
+        nearest(downSheet);
+        nearest(idleSheet);
 
         // ─── PINK sheets (new) ───────────────────────────────────────────
         Texture pinkIdle   = directory.getEntry("chameleonPinkIdle",     Texture.class);
@@ -515,18 +530,18 @@ public class Level {
 
 
 
-        pinkIdle.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        pinkWalk.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        pinkUp.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        pinkDown.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        nearest(pinkIdle);
+        nearest(pinkWalk);
+        nearest(pinkUp);
+        nearest(pinkDown);
 // NEW bomb sheets
         Texture windupSheet   = directory.getEntry("chameleonBombWindup",   Texture.class);
         Texture shootSheet    = directory.getEntry("chameleonBombShoot",    Texture.class);
         Texture winddownSheet = directory.getEntry("chameleonBombWinddown", Texture.class);
 
-        windupSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        shootSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        winddownSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        nearest(windupSheet);
+        nearest(shootSheet);
+        nearest(winddownSheet);
 // standard animations
         Animation<TextureRegion> walkAnim   = createAnimation(walkSheet,  13, 0.07f);
         Animation<TextureRegion> upAnim     = createAnimation(upSheet,    15, 0.07f);
@@ -538,85 +553,61 @@ public class Level {
         Animation<TextureRegion> pinkDownAnim = createAnimation(pinkDown,  15,  0.07f);
 
 // bomb animations
-        Animation<TextureRegion> bombWindup   = createAnimation(windupSheet,   17, 0.03f);
-        Animation<TextureRegion> bombShoot    = createAnimation(shootSheet,    13, 0.11f);
-        Animation<TextureRegion> bombWinddown = createAnimation(winddownSheet, 18, 0.04f);
+        Animation<TextureRegion> bombWindup   = createAnimation(windupSheet,   17, 0.03f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> bombShoot    = createAnimation(shootSheet,    13, 0.11f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> bombWinddown = createAnimation(winddownSheet, 18, 0.04f, Animation.PlayMode.NORMAL);
 
 // ── NEW pink-bomb sheets (for when the chameleon is hidden/pink) ─────────────────
         Texture pinkWindupSheet   = directory.getEntry("chameleonPinkWindUp",   Texture.class);
         Texture pinkShootSheet    = directory.getEntry("chameleonPinkBombShoot",    Texture.class);
         Texture pinkWinddownSheet = directory.getEntry("chameleonPinkWindDown", Texture.class);
 
-        pinkWindupSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        pinkShootSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        pinkWinddownSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        nearest(pinkWindupSheet);
+        nearest(pinkShootSheet);
+        nearest(pinkWinddownSheet);
 
 // frame counts & durations should match your art-sheet-layout
-        Animation<TextureRegion> pinkBombWindup   = createAnimation(pinkWindupSheet,   17, 0.03f);
-        Animation<TextureRegion> pinkBombShoot    = createAnimation(pinkShootSheet,    13, 0.05f);
-        Animation<TextureRegion> pinkBombWinddown = createAnimation(pinkWinddownSheet, 18, 0.04f);
+        Animation<TextureRegion> pinkBombWindup   = createAnimation(pinkWindupSheet,   17, 0.03f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> pinkBombShoot    = createAnimation(pinkShootSheet,    13, 0.05f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> pinkBombWinddown = createAnimation(pinkWinddownSheet, 18, 0.04f, Animation.PlayMode.NORMAL);
 
         // ── VERTICAL (green) bomb sheets ────────────────────────────────────────────
 // Up-throw
         Texture upGreenWindUpSheet    = directory.getEntry("chameleonGreenUpWindUp",    Texture.class);
         Texture upGreenBombShootSheet = directory.getEntry("chameleonGreenUpBombShoot", Texture.class);
         Texture upGreenWindDownSheet  = directory.getEntry("chameleonGreenUpWindDown",  Texture.class);
-        upGreenWindUpSheet   .setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        upGreenBombShootSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        upGreenWindDownSheet .setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        nearest(upGreenWindUpSheet);
+        nearest(upGreenBombShootSheet);
+        nearest(upGreenWindDownSheet);
 // TODO: replace “U” and “D” with your actual frame counts and durations
-        Animation<TextureRegion> upBombWindup   = createAnimation(upGreenWindUpSheet,    16, 0.03f);
-        Animation<TextureRegion> upBombShoot    = createAnimation(upGreenBombShootSheet, 14, 0.05f);
-        Animation<TextureRegion> upBombWinddown = createAnimation(upGreenWindDownSheet,  16, 0.04f);
-        upBombWindup  .setPlayMode(Animation.PlayMode.NORMAL);
-        upBombShoot   .setPlayMode(Animation.PlayMode.NORMAL);
-        upBombWinddown.setPlayMode(Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> upBombWindup   = createAnimation(upGreenWindUpSheet,    16, 0.03f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> upBombShoot    = createAnimation(upGreenBombShootSheet, 14, 0.05f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> upBombWinddown = createAnimation(upGreenWindDownSheet,  16, 0.04f, Animation.PlayMode.NORMAL);
 // Down-throw
         Texture downGreenWindUpSheet    = directory.getEntry("chameleonGreenDownWindUp",    Texture.class);
         Texture downGreenBombShootSheet = directory.getEntry("chameleonGreenDownBombShoot", Texture.class);
         Texture downGreenWindDownSheet  = directory.getEntry("chameleonGreenDownWindDown",  Texture.class);
-        downGreenWindUpSheet   .setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        downGreenBombShootSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        downGreenWindDownSheet .setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        Animation<TextureRegion> downBombWindup   = createAnimation(downGreenWindUpSheet,    14, 0.03f);
-        Animation<TextureRegion> downBombShoot    = createAnimation(downGreenBombShootSheet, 15, 0.05f);
-        Animation<TextureRegion> downBombWinddown = createAnimation(downGreenWindDownSheet,  14, 0.04f);
-        downBombWindup  .setPlayMode(Animation.PlayMode.NORMAL);
-        downBombShoot   .setPlayMode(Animation.PlayMode.NORMAL);
-        downBombWinddown.setPlayMode(Animation.PlayMode.NORMAL);
-
-        pinkBombWindup.setPlayMode(Animation.PlayMode.NORMAL);
-        pinkBombShoot.setPlayMode(Animation.PlayMode.NORMAL);
-        pinkBombWinddown.setPlayMode(Animation.PlayMode.NORMAL);
-
-
-        bombWindup.setPlayMode(Animation.PlayMode.NORMAL);
-        bombShoot.setPlayMode(Animation.PlayMode.NORMAL);
-        bombWinddown.setPlayMode(Animation.PlayMode.NORMAL);
+        nearest(downGreenWindUpSheet);
+        nearest(downGreenBombShootSheet);
+        nearest(downGreenWindDownSheet);
+        Animation<TextureRegion> downBombWindup   = createAnimation(downGreenWindUpSheet,    14, 0.03f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> downBombShoot    = createAnimation(downGreenBombShootSheet, 15, 0.05f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> downBombWinddown = createAnimation(downGreenWindDownSheet,  14, 0.04f, Animation.PlayMode.NORMAL);
 
         Texture uppinkwindupSheet    = directory.getEntry("upPinkBombWindupSheet",    Texture.class);
         Texture uppinkbombSheet = directory.getEntry("upPinkBombShootSheet", Texture.class);
         Texture uppinkwinddownSheet  = directory.getEntry("upPinkBombWinddownSheet",  Texture.class);
         // 举例：先加载好 uppinkwindup/uppinkbomb/uppinkwinddown 贴图
-        Animation<TextureRegion> upPinkWindup   = createAnimation( uppinkwindupSheet,    16, 0.03f );
-        Animation<TextureRegion> upPinkShoot    = createAnimation( uppinkbombSheet,       14, 0.05f );
-        Animation<TextureRegion> upPinkWinddown = createAnimation( uppinkwinddownSheet,   16, 0.04f );
-
-// 设成 NORMAL 播放模式
-        upPinkWindup  .setPlayMode(Animation.PlayMode.NORMAL);
-        upPinkShoot   .setPlayMode(Animation.PlayMode.NORMAL);
-        upPinkWinddown.setPlayMode(Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> upPinkWindup   = createAnimation( uppinkwindupSheet,    16, 0.03f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> upPinkShoot    = createAnimation( uppinkbombSheet,       14, 0.05f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> upPinkWinddown = createAnimation( uppinkwinddownSheet,   16, 0.04f, Animation.PlayMode.NORMAL);
 
         Texture downpinkwindupSheet    = directory.getEntry("downPinkBombWindupSheet",    Texture.class);
         Texture downpinkbombSheet = directory.getEntry("downPinkBombShootSheet", Texture.class);
         Texture downpinkwinddownSheet  = directory.getEntry("downPinkBombWinddownSheet",  Texture.class);
-        Animation<TextureRegion> downPinkWindup   = createAnimation( downpinkwindupSheet,    14, 0.03f );
-        Animation<TextureRegion> downPinkShoot    = createAnimation( downpinkbombSheet,       15, 0.05f );
-        Animation<TextureRegion> downPinkWinddown = createAnimation( downpinkwinddownSheet,   14, 0.04f );
-
-        downPinkWindup  .setPlayMode(Animation.PlayMode.NORMAL);
-        downPinkShoot   .setPlayMode(Animation.PlayMode.NORMAL);
-        downPinkWinddown.setPlayMode(Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> downPinkWindup   = createAnimation( downpinkwindupSheet,    14, 0.03f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> downPinkShoot    = createAnimation( downpinkbombSheet,       15, 0.05f, Animation.PlayMode.NORMAL);
+        Animation<TextureRegion> downPinkWinddown = createAnimation( downpinkwinddownSheet,   14, 0.04f, Animation.PlayMode.NORMAL);
 
 // 最后注入到 avatar：
 
@@ -629,7 +620,7 @@ public class Level {
             walkSound, idleAnim);
 
         Texture splatSheet = directory.getEntry("chameleonSplat", Texture.class);
-        splatSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        nearest(splatSheet);
         Animation<TextureRegion> splatAnim = createAnimation(splatSheet, 2, 0.2f);
         avatar.setSprayAnimation(splatAnim);
 // hand all three bomb clips to the chameleon
@@ -649,30 +640,30 @@ public class Level {
         if (enemiesData != null) {
 //            Texture enemyTex = directory.getEntry("enemy", Texture.class);
             Texture enemyAlertSheet = directory.getEntry("enemyAlertSheet", Texture.class);
-            enemyAlertSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemyAlertSheet);
             Animation<TextureRegion> enemyAlertAnim = createAnimation(enemyAlertSheet, 13, 0.2f);
             Texture enemyBlueRedSheet = directory.getEntry("enemyBlueRedSheet", Texture.class);
-            enemyBlueRedSheet.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemyBlueRedSheet);
             Animation<TextureRegion> enemyBlueRedAnim = createAnimation(enemyBlueRedSheet, 8, 0.2f);
             // BLUE
             Texture enemySideSheetBlue = directory.getEntry("enemySideSheetBlue", Texture.class);
-            enemySideSheetBlue.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemySideSheetBlue);
             Animation<TextureRegion> enemySideAnimBlue = createAnimation(enemySideSheetBlue, 8, 0.3f);
             Texture enemyFrontSheetBlue = directory.getEntry("enemyFrontSheetBlue", Texture.class);
-            enemyFrontSheetBlue.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemyFrontSheetBlue);
             Animation<TextureRegion> enemyFrontAnimBlue = createAnimation(enemyFrontSheetBlue, 12, 0.2f);
             Texture enemyBackSheetBlue = directory.getEntry("enemyBackSheetBlue", Texture.class);
-            enemyBackSheetBlue.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemyBackSheetBlue);
             Animation<TextureRegion> enemyBackAnimBlue = createAnimation(enemyBackSheetBlue, 12, 0.2f);
             // RED
             Texture enemySideSheetRed = directory.getEntry("enemySideSheetRed", Texture.class);
-            enemySideSheetRed.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemySideSheetRed);
             Animation<TextureRegion> enemySideAnimRed = createAnimation(enemySideSheetRed, 8, 0.15f);
             Texture enemyFrontSheetRed = directory.getEntry("enemyFrontSheetRed", Texture.class);
-            enemyFrontSheetRed.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemyFrontSheetRed);
             Animation<TextureRegion> enemyFrontAnimRed = createAnimation(enemyFrontSheetRed, 12, 0.1f);
             Texture enemyBackSheetRed = directory.getEntry("enemyBackSheetRed", Texture.class);
-            enemyBackSheetRed.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            nearest(enemyBackSheetRed);
             Animation<TextureRegion> enemyBackAnimRed = createAnimation(enemyBackSheetRed, 12, 0.1f);
 
             // Store all animations together
@@ -725,27 +716,22 @@ public class Level {
 
         }
         lasers        = new ArrayList<>();
-        // ---------- Lasers (1×1 tiles) ----------
+        // ---------- Lasers (runs of 1×1 tiles, one body per beam) ----------
         JsonValue laserLayer = findLayer(constants, "laser");
         if (laserLayer != null && laserLayer.has("data")) {
             int w = laserLayer.getInt("width");
             int h = laserLayer.getInt("height");
-            JsonValue data = laserLayer.get("data");
-            for (int i = 0; i < data.size; i++) {
-                int gid = data.getInt(i);
+            int[] data = laserLayer.get("data").asIntArray();
+            // Region per tile in world-grid order (flip Y); null = no laser
+            TextureRegion[][] grid = new TextureRegion[w][h];
+            for (int i = 0; i < data.length; i++) {
+                int gid = data[i];
                 if (gid == 0) { continue; }
-                TextureRegion region = tileRegions.get(gid);
+                TextureRegion region = tiles.region(gid);
                 if (region == null) { continue; }
-
-                // compute grid pos (flip Y)
-                int tx = i % w;
-                int ty = h - 1 - (i / w);
-                // center of tile in world coords
-                Vector2 center = new Vector2(tx + 0.5f, ty + 0.5f);
-
-                Laser laser = new Laser(units, region, center);
-                lasers.add(laser);
+                grid[i % w][h - 1 - (i / w)] = region;
             }
+            buildLaserBeams(grid, w, h, units);
         }
 
         bombs = new ArrayList<>();
@@ -800,6 +786,18 @@ public class Level {
 
     public List<Collision> getCollision(){return collision;}
 
+    /** Returns the solid-tile bitmap built from the collision layer */
+    public SolidGrid getSolidGrid() { return solidGrid; }
+
+    /** Returns the guards' lookup tables over the world's grid points */
+    public NavField getNavField() { return navField; }
+
+    /** Returns the guards' navigation graph over the walls and goal machines */
+    public NavGraph getNavGraph() { return navGraph; }
+
+    /** Returns true if guards should plan with Jump Point Search ("planner": "jps") */
+    public boolean usesJumpPoints() { return jumpPoints; }
+
     public List<BackgroundTile> getBackgroundTiles() {
         return backgroundTiles;
     }
@@ -832,27 +830,95 @@ public class Level {
 //    }
 
     /**
-     * Split the tileset PNG into regions of size tileSize×tileSize
-     * and build gid→TextureRegion map.
+     * Looks up the shared tile table for the tileset texture.
      */
-    private void initTileRegions(AssetDirectory dir, int tileSize) {
-        // load the full tileset image
+    private void initTileTable(AssetDirectory dir, JsonValue config) {
+        if (config == null) {
+            throw new GdxRuntimeException("constants.json has no \"tileset\" section");
+        }
         Texture tileset = dir.getEntry("tileset", Texture.class);
+        nearest(tileset);
+        clampedTextures.add(tileset);
+        tiles = TileTable.get(tileset, config);
+    }
 
-        tileset.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
-        tileset.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
-        // split into small regions
-        TextureRegion[][] grid = TextureRegion.split(tileset, tileSize, tileSize);
+    /**
+     * Merges laser tiles into beams and adds them to the laser list.
+     * <p>
+     * Horizontal runs are taken first. Tiles that are alone in their row are
+     * then joined into vertical runs along their column.
+     */
+    private void buildLaserBeams(TextureRegion[][] grid, int w, int h, float units) {
+        boolean[][] used = new boolean[w][h];
+        List<TextureRegion> regions = new ArrayList<>();
+        List<Vector2> centers = new ArrayList<>();
+
+        // Horizontal runs of two or more tiles
+        for (int ty = 0; ty < h; ty++) {
+            int tx = 0;
+            while (tx < w) {
+                if (grid[tx][ty] == null) { tx++; continue; }
+                int end = tx;
+                while (end + 1 < w && grid[end + 1][ty] != null) { end++; }
+                if (end > tx) {
+                    for (int x = tx; x <= end; x++) {
+                        regions.add(grid[x][ty]);
+                        centers.add(new Vector2(x + 0.5f, ty + 0.5f));
+                        used[x][ty] = true;
+                    }
+                    addLaserBeam(regions, centers, units);
+                }
+                tx = end + 1;
+            }
+        }
 
-        tileRegions = new HashMap<>();
-        int gid = 1;  // assume this is your first (and only) tileset, so first gid=1
-        for (int row = 0; row < grid.length; row++) {
-            for (int col = 0; col < grid[row].length; col++) {
-                tileRegions.put(gid++, grid[row][col]);
+        // Vertical runs (including single tiles) from what is left
+        for (int tx = 0; tx < w; tx++) {
+            int ty = 0;
+            while (ty < h) {
+                if (grid[tx][ty] == null || used[tx][ty]) { ty++; continue; }
+                int end = ty;
+                while (end + 1 < h && grid[tx][end + 1] != null && !used[tx][end + 1]) { end++; }
+                for (int y = ty; y <= end; y++) {
+                    regions.add(grid[tx][y]);
+                    centers.add(new Vector2(tx + 0.5f, y + 0.5f));
+                }
+                addLaserBeam(regions, centers, units);
+                ty = end + 1;
             }
         }
     }
 
+    /** Creates one beam from the collected tiles and clears the lists */
+    private void addLaserBeam(List<TextureRegion> regions, List<Vector2> centers, float units) {
+        lasers.add(new Laser(units,
+            regions.toArray(new TextureRegion[0]),
+            centers.toArray(new Vector2[0])));
+        regions.clear();
+        centers.clear();
+    }
+
+    /**
+     * Applies the texture filtering and wrapping this level asked for. GL
+     * state can only be changed on the render thread, so the constructor
+     * only records it.
+     */
+    public void finishOnGlThread() {
+        for (Texture texture : nearestTextures) {
+            texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        }
+        for (Texture texture : clampedTextures) {
+            texture.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
+        }
+        nearestTextures.clear();
+        clampedTextures.clear();
+    }
+
+    /** Records a pixel-art texture that needs nearest filtering */
+    private void nearest(Texture texture) {
+        nearestTextures.add(texture);
+    }
+
     private JsonValue findLayer(JsonValue mapRoot, String layerName) {
         JsonValue layers = mapRoot.get("layers");
         if (layers == null) {
@@ -883,21 +949,22 @@ public class Level {
 //    }
 
 
+    /**
+     * Returns the shared looping animation for a sheet. The result comes from
+     * {@link AnimationRegistry} and must not be modified.
+     */
     public static Animation<TextureRegion> createAnimation(Texture sheet, int frameCount,
         float frameDuration) {
-        int totalWidth = sheet.getWidth();
-        int totalHeight = sheet.getHeight();
-        int frameWidth = totalWidth / frameCount;
-        int frameHeight = totalHeight;
-        TextureRegion[][] tmp = TextureRegion.split(sheet, frameWidth, frameHeight);
-        TextureRegion[] frames = new TextureRegion[frameCount];
-        for (int i = 0; i < frameCount; i++) {
-            frames[i] = tmp[0][i];
-        }
+        return createAnimation(sheet, frameCount, frameDuration, Animation.PlayMode.LOOP);
+    }
 
-        Animation<TextureRegion> animation = new Animation<>(frameDuration, frames);
-        animation.setPlayMode(Animation.PlayMode.LOOP);
-        return animation;
+    /**
+     * Returns the shared animation for a sheet with the given play mode. The
+     * result comes from {@link AnimationRegistry} and must not be modified.
+     */
+    public static Animation<TextureRegion> createAnimation(Texture sheet, int frameCount,
+        float frameDuration, Animation.PlayMode mode) {
+        return AnimationRegistry.get(sheet, frameCount, frameDuration, mode);
     }
 
     /** Data structures to hold all enemy animations */
@@ -0,0 +1,167 @@
+package chroma.model;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * NavField
+ * --------
+ * Lookup tables over the grid points that guards navigate between, baked
+ * once with the level.
+ * <p>
+ * A grid point is walkable when none of the four tiles around it is a wall.
+ * For every point the field stores the nearest walkable point, so snapping a
+ * position onto the nav graph is one array read, and the distance to the
+ * nearest blocked point, which steering uses to keep clear of walls. Both
+ * are filled by propagating the nearest seed outwards from the walkable (or
+ * blocked) points, which is exact up to rare ties.
+ * <p>
+ * The field is immutable once built, so it may be read from any thread.
+ */
+public class NavField {
+    /** Grid size in points; point (x, y) is number x + y * width */
+    private final int width;
+    private final int height;
+    private final boolean[] walkable;
+    /** Nearest walkable point of each point, or -1 if there is none */
+    private final int[] nearest;
+    /** Distance from each point to the nearest blocked point */
+    private final float[] wallDistance;
+
+    /**
+     * Bakes the field for a level.
+     *
+     * @param solids the level's wall tiles
+     * @param width  grid width in points
+     * @param height grid height in points
+     */
+    public NavField(SolidGrid solids, int width, int height) {
+        this.width = width;
+        this.height = height;
+        int count = width * height;
+        walkable = new boolean[count];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                walkable[x + y * width] = !solids.isSolid(x - 1, y - 1) && !solids.isSolid(x, y - 1)
+                    && !solids.isSolid(x - 1, y) && !solids.isSolid(x, y);
+            }
+        }
+
+        nearest = propagate(true);
+        int[] nearestWall = propagate(false);
+        wallDistance = new float[count];
+        for (int i = 0; i < count; i++) {
+            wallDistance[i] = nearestWall[i] < 0 ? Float.MAX_VALUE : (float) Math.sqrt(dist2(i, nearestWall[i]));
+        }
+    }
+
+    /**
+     * Returns, for every point, the nearest point whose walkability is the
+     * given value, or -1 if there is none.
+     */
+    private int[] propagate(boolean seedValue) {
+        int count = width * height;
+        int[] seed = new int[count];
+        // Ring buffer of points whose seed changed; each point is in it at most once
+        int[] queue = new int[Math.max(count, 1)];
+        boolean[] queued = new boolean[count];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (walkable[i] == seedValue) {
+                seed[i] = i;
+                queue[(head + size++) % queue.length] = i;
+                queued[i] = true;
+            } else {
+                seed[i] = -1;
+            }
+        }
+
+        while (size > 0) {
+            int i = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[i] = false;
+
+            int x = i % width;
+            int y = i / width;
+            int s = seed[i];
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int j = nx + ny * width;
+                    if (seed[j] < 0 || dist2(j, s) < dist2(j, seed[j])) {
+                        seed[j] = s;
+                        if (!queued[j]) {
+                            queue[(head + size++) % queue.length] = j;
+                            queued[j] = true;
+                        }
+                    }
+                }
+            }
+        }
+        return seed;
+    }
+
+    private int dist2(int a, int b) {
+        int dx = a % width - b % width;
+        int dy = a / width - b / width;
+        return dx * dx + dy * dy;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /** Returns true if the point is in the grid and clear of walls */
+    public boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && walkable[x + y * width];
+    }
+
+    /**
+     * Returns the walkable point nearest to a position, as x + y * width,
+     * or -1 if the level has none.
+     */
+    public int nearestWalkable(float px, float py) {
+        return nearest[index(px, py)];
+    }
+
+    /**
+     * Returns the distance from a position to the nearest blocked point,
+     * sampled at the closest grid point.
+     */
+    public float wallDistance(float px, float py) {
+        return wallDistance[index(px, py)];
+    }
+
+    /**
+     * Sets out to the direction in which the distance to walls grows fastest
+     * at a position, or to zero where the field is flat.
+     *
+     * @return out, for chaining
+     */
+    public Vector2 awayFromWalls(float px, float py, Vector2 out) {
+        int x = clamp(Math.round(px), width);
+        int y = clamp(Math.round(py), height);
+        float gx = sample(x + 1, y) - sample(x - 1, y);
+        float gy = sample(x, y + 1) - sample(x, y - 1);
+        out.set(gx, gy);
+        return out.isZero() ? out : out.nor();
+    }
+
+    /** Distance field at a point, clamped to the grid and to a finite value */
+    private float sample(int x, int y) {
+        float value = wallDistance[clamp(x, width) + clamp(y, height) * width];
+        return Math.min(value, width + height);
+    }
+
+    private int index(float px, float py) {
+        return clamp(Math.round(px), width) + clamp(Math.round(py), height) * width;
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+}
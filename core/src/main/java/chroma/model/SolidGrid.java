@@ -0,0 +1,128 @@
+package chroma.model;
+
+/**
+ * SolidGrid
+ * ---------
+ * A packed bitmap of the solid (wall) tiles from the level's collision layer,
+ * one bit per 1×1 tile, plus a grid raycaster over it.
+ * <p>
+ * Walls are always whole tiles, so a ray only has to step from tile to tile
+ * (Amanatides–Woo voxel traversal) instead of querying Box2D. The grid is
+ * immutable once the level is built, so it may be read from any thread.
+ * <p>
+ * Rays follow Box2D's behaviour for touching: a ray that runs along a tile
+ * edge or passes exactly through a tile corner counts as hitting the solid
+ * tiles it touches.
+ */
+public class SolidGrid {
+    private final int width;
+    private final int height;
+    /** Words per row of the bitmap */
+    private final int stride;
+    private final long[] bits;
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param width  width in tiles
+     * @param height height in tiles
+     */
+    public SolidGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = (width + 63) >>> 6;
+        this.bits = new long[stride * Math.max(height, 0)];
+    }
+
+    /** Marks a tile as solid. Only used while the level is being built. */
+    void setSolid(int x, int y) {
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            bits[y * stride + (x >>> 6)] |= 1L << (x & 63);
+        }
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /**
+     * Returns true if the tile is solid. Tiles outside the grid are open.
+     */
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        return (bits[y * stride + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    /**
+     * Casts a ray from (x0,y0) to (x1,y1) in world units (1 unit = 1 tile).
+     *
+     * @return the fraction of the segment at which it first touches a solid
+     *         tile, or -1 if it reaches the end unblocked
+     */
+    public float raycast(float x0, float y0, float x1, float y1) {
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int ix = (int) Math.floor(x0);
+        int iy = (int) Math.floor(y0);
+
+        // A ray lying on a grid line touches the tiles on both sides of it
+        boolean onRow = dy == 0 && y0 == iy;
+        boolean onCol = dx == 0 && x0 == ix;
+
+        if (touches(ix, iy, onRow, onCol)) {
+            return 0;
+        }
+
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        float tDeltaX = stepX != 0 ? Math.abs(1f / dx) : Float.POSITIVE_INFINITY;
+        float tDeltaY = stepY != 0 ? Math.abs(1f / dy) : Float.POSITIVE_INFINITY;
+        float tMaxX = stepX > 0 ? (ix + 1 - x0) / dx
+            : (stepX < 0 ? (x0 - ix) / -dx : Float.POSITIVE_INFINITY);
+        float tMaxY = stepY > 0 ? (iy + 1 - y0) / dy
+            : (stepY < 0 ? (y0 - iy) / -dy : Float.POSITIVE_INFINITY);
+
+        while (true) {
+            float t;
+            if (tMaxX < tMaxY) {
+                t = tMaxX;
+                if (t > 1) { break; }
+                ix += stepX;
+                tMaxX += tDeltaX;
+            } else if (tMaxY < tMaxX) {
+                t = tMaxY;
+                if (t > 1) { break; }
+                iy += stepY;
+                tMaxY += tDeltaY;
+            } else {
+                // Exactly through a corner: the two side tiles are touched too
+                t = tMaxX;
+                if (t > 1 || t == Float.POSITIVE_INFINITY) { break; }
+                if (isSolid(ix + stepX, iy) || isSolid(ix, iy + stepY)) {
+                    return t;
+                }
+                ix += stepX;
+                iy += stepY;
+                tMaxX += tDeltaX;
+                tMaxY += tDeltaY;
+            }
+            if (touches(ix, iy, onRow, onCol)) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the segment between the two points touches a solid tile.
+     */
+    public boolean isLineBlocked(float x0, float y0, float x1, float y1) {
+        return raycast(x0, y0, x1, y1) >= 0;
+    }
+
+    /** Tile test that includes the neighbour across a grid line the ray runs along */
+    private boolean touches(int x, int y, boolean onRow, boolean onCol) {
+        return isSolid(x, y) || (onRow && isSolid(x, y - 1)) || (onCol && isSolid(x - 1, y));
+    }
+}
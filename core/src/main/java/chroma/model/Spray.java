@@ -7,17 +7,14 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureWrap;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.EarClippingTriangulator;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
-import com.badlogic.gdx.utils.ShortArray;
 import edu.cornell.gdiac.graphics.SpriteBatch;
 import edu.cornell.gdiac.graphics.SpriteSheet;
 import edu.cornell.gdiac.math.Poly2;
 import edu.cornell.gdiac.physics2.ObstacleSprite;
-import edu.cornell.gdiac.physics2.PolygonObstacle;
 
 /**
  * A class representing a "spray" paint effect in the game.
@@ -36,6 +33,8 @@ public class Spray extends ObstacleSprite {
     private float[] trianglePoints;
     private final float angleDeg;
     private Poly2 poly;
+    /** Cached batch color so drawing does not allocate */
+    private final Color savedColor = new Color();
     /**
      * Creates a new Spray object from the given points and world unit scale.
      *
@@ -94,11 +93,12 @@ public class Spray extends ObstacleSprite {
     private final Animation<TextureRegion> launchAnim;
     float texW;
     float texH;
-    public Spray(float[] points,
+    public Spray(SprayFan fan,
         float units,
         Texture sprayTex,
         float angleDeg,Animation<TextureRegion>fadeAnim,Animation<TextureRegion>launchAnim) {
 
+        float[] points = fan.getVertices();
         this.angleDeg = angleDeg;
         this.sprayTexture = sprayTex;
         Vector2 origin = new Vector2(points[0], points[1]);
@@ -126,7 +126,8 @@ public class Spray extends ObstacleSprite {
             localMeters[i] *= units;
         }
 
-        obstacle = new PolygonObstacle(localPx);
+        // One fixture per convex piece of the fan
+        obstacle = new FanObstacle(localPx, fan.getPieces());
         obstacle.setBodyType(BodyDef.BodyType.DynamicBody);
         obstacle.setSensor(true);
         obstacle.setUserData(this);
@@ -138,11 +139,9 @@ public class Spray extends ObstacleSprite {
         obstacle.setActive(true);
 
         /* ------------------------------------------------------------
-         * 3) Poly2
+         * 3) Poly2: the same vertices, as a triangle fan
          * ---------------------------------------------------------- */
-        EarClippingTriangulator triangulator = new EarClippingTriangulator();
-        ShortArray tris = triangulator.computeTriangles(localMeters);
-        poly = new Poly2(localMeters, tris.toArray());   // 像素坐标
+        poly = new Poly2(localMeters, fan.getTriangles());   // 像素坐标
 
         /* ------------------------------------------------------------
          * 4) Mesh
@@ -229,7 +228,7 @@ public void update(float dt) {
     @Override
     public void draw(SpriteBatch batch) {
         /* 1) 保存当前批次颜色 */
-        Color saved = new Color(batch.getColor());
+        Color saved = savedColor.set(batch.getColor());
 
         /* 2) 应用透明度（淡出） */
         batch.setColor(saved.r, saved.g, saved.b, alpha);
@@ -0,0 +1,148 @@
+package chroma.model;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * SprayFan
+ * --------
+ * The shape of one spray: the nozzle and the ends of the spray rays around
+ * it, in order, cut into convex pieces Box2D can use as fixtures.
+ * <p>
+ * Seen from the nozzle the fan is star-shaped, so it never needs a general
+ * triangulator. The render mesh is the triangle fan around the nozzle, and
+ * the physics shape is cut along rays from the nozzle: each piece is the
+ * nozzle plus a run of consecutive rim points, grown while it stays convex
+ * and within Box2D's eight vertices. Any part of a convex piece is convex
+ * too, so growing each piece as far as it goes gives the fewest pieces.
+ * <p>
+ * Rim points that Box2D could not tell apart, and wedges with no area, are
+ * dropped first, so every piece is a valid Box2D polygon.
+ */
+public class SprayFan {
+    /** Box2D's vertex limit for a polygon */
+    public static final int MAX_PIECE_VERTICES = 8;
+    /** Points closer than this (in world units) are merged; Box2D welds below 0.0025 */
+    private static final float WELD_DISTANCE = 0.01f;
+    /** Smallest cross product for a wedge or a corner to count as turning */
+    private static final float MIN_CROSS = 1e-4f;
+
+    /** x, y of the nozzle followed by the rim points */
+    private final float[] vertices;
+    /** Piece k is the nozzle and rim vertices pieces[k] to pieces[k+1] */
+    private final int[] pieces;
+
+    private SprayFan(float[] vertices, int[] pieces) {
+        this.vertices = vertices;
+        this.pieces = pieces;
+    }
+
+    /**
+     * Builds the fan for a nozzle and the ends of its rays.
+     *
+     * @param origin the nozzle
+     * @param rim    the ray ends in angular order; null entries are skipped
+     * @return the fan, or null if too little of it is left to make a shape
+     */
+    public static SprayFan build(Vector2 origin, Vector2[] rim) {
+        float ox = origin.x;
+        float oy = origin.y;
+
+        // Which way the rim winds around the nozzle
+        float winding = 0;
+        Vector2 previous = null;
+        for (Vector2 point : rim) {
+            if (point == null) continue;
+            if (previous != null) {
+                winding += cross(previous.x - ox, previous.y - oy, point.x - ox, point.y - oy);
+            }
+            previous = point;
+        }
+        if (winding == 0) {
+            return null;
+        }
+        float sign = Math.signum(winding);
+
+        FloatArray points = new FloatArray(2 * rim.length + 2);
+        points.add(ox, oy);
+        float weld2 = WELD_DISTANCE * WELD_DISTANCE;
+        for (Vector2 point : rim) {
+            if (point == null || point.dst2(ox, oy) < weld2) continue;
+            if (points.size > 2) {
+                float lastX = points.get(points.size - 2);
+                float lastY = points.get(points.size - 1);
+                if (point.dst2(lastX, lastY) < weld2
+                    || sign * cross(lastX - ox, lastY - oy, point.x - ox, point.y - oy) < MIN_CROSS) {
+                    continue;  // merged, or a wedge with no area
+                }
+            }
+            points.add(point.x, point.y);
+        }
+        float[] vertices = points.toArray();
+        int count = vertices.length / 2;
+        if (count < 3) {
+            return null;
+        }
+
+        // Every wedge is a valid triangle; grow pieces across them
+        IntArray starts = new IntArray();
+        int first = 1;
+        int last = 2;
+        starts.add(first);
+        for (int next = 3; next < count; next++) {
+            boolean fits = next - first + 2 <= MAX_PIECE_VERTICES
+                && turns(vertices, sign, last - 1, last, next)
+                && turns(vertices, sign, last, next, 0)
+                && turns(vertices, sign, next, 0, first);
+            if (!fits) {
+                first = last;
+                starts.add(first);
+            }
+            last = next;
+        }
+        starts.add(last);
+        return new SprayFan(vertices, starts.toArray());
+    }
+
+    /** Returns true if the path a, b, c turns at b in the fan's direction */
+    private static boolean turns(float[] v, float sign, int a, int b, int c) {
+        float abx = v[2 * b] - v[2 * a];
+        float aby = v[2 * b + 1] - v[2 * a + 1];
+        float bcx = v[2 * c] - v[2 * b];
+        float bcy = v[2 * c + 1] - v[2 * b + 1];
+        return sign * cross(abx, aby, bcx, bcy) > MIN_CROSS;
+    }
+
+    private static float cross(float ax, float ay, float bx, float by) {
+        return ax * by - ay * bx;
+    }
+
+    /**
+     * Returns the nozzle followed by the rim points, as x, y pairs. The array
+     * is shared, not copied.
+     */
+    public float[] getVertices() { return vertices; }
+
+    /**
+     * Returns where the convex pieces start and end: piece k is the nozzle
+     * (vertex 0) and the rim vertices pieces[k] to pieces[k+1]. The array is
+     * shared, not copied.
+     */
+    public int[] getPieces() { return pieces; }
+
+    /** Returns the number of convex pieces */
+    public int getPieceCount() { return pieces.length - 1; }
+
+    /** Returns the triangle fan around the nozzle, as mesh indices */
+    public short[] getTriangles() {
+        int count = vertices.length / 2;
+        short[] indices = new short[3 * (count - 2)];
+        for (int i = 1; i < count - 1; i++) {
+            indices[3 * (i - 1)] = 0;
+            indices[3 * (i - 1) + 1] = (short) i;
+            indices[3 * (i - 1) + 2] = (short) (i + 1);
+        }
+        return indices;
+    }
+}
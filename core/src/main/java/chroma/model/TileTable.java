@@ -0,0 +1,95 @@
+package chroma.model;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * TileTable
+ * ---------
+ * Dense gid-indexed table of the tileset: the region for each tile and a set
+ * of flag bits describing what kind of tile it is.
+ * <p>
+ * Tile kinds come from the "tileset" section of the constants file, where
+ * each kind lists its gids, so adding a tile to a kind needs no code change.
+ * Grate is the only kind a gid decides. Whether a tile is solid, a light or
+ * bombable depends on the map layer it is placed in (collision, lights, or
+ * any layer), so those are not flags here.
+ * The table is built once per tileset texture and shared by every level; it
+ * is read-only afterwards, so levels may use it from the loader thread.
+ */
+public class TileTable {
+    /** Tile is a grate: walkable, drawn above the floor */
+    public static final int GRATE = 1;
+
+    /** Names of the kinds in the constants file, indexed by flag bit */
+    private static final String[] KIND_NAMES = { "grate" };
+
+    private static TileTable shared;
+
+    private final Texture tileset;
+    /** Region per gid; index 0 (empty) is null */
+    private final TextureRegion[] regions;
+    private final byte[] flags;
+
+    /**
+     * Returns the table for a tileset, building it the first time.
+     *
+     * @param tileset the tileset texture
+     * @param config  the "tileset" section of the constants file
+     * @return the shared table
+     */
+    public static synchronized TileTable get(Texture tileset, JsonValue config) {
+        if (shared == null || shared.tileset != tileset) {
+            shared = new TileTable(tileset, config);
+        }
+        return shared;
+    }
+
+    /** Drops the shared table. Call this when the tileset is unloaded. */
+    public static synchronized void clear() {
+        shared = null;
+    }
+
+    private TileTable(Texture tileset, JsonValue config) {
+        this.tileset = tileset;
+        int tileSize = config.getInt("tileSize", 16);
+
+        // The first (and only) tileset starts at gid 1
+        TextureRegion[][] grid = TextureRegion.split(tileset, tileSize, tileSize);
+        int count = 0;
+        for (TextureRegion[] row : grid) {
+            count += row.length;
+        }
+        regions = new TextureRegion[count + 1];
+        flags = new byte[count + 1];
+        int gid = 1;
+        for (TextureRegion[] row : grid) {
+            for (TextureRegion region : row) {
+                regions[gid++] = region;
+            }
+        }
+
+        for (int bit = 0; bit < KIND_NAMES.length; bit++) {
+            JsonValue gids = config.get(KIND_NAMES[bit]);
+            if (gids == null) {
+                continue;
+            }
+            for (int id : gids.asIntArray()) {
+                if (id > 0 && id < flags.length) {
+                    flags[id] |= 1 << bit;
+                }
+            }
+        }
+    }
+
+    /** Returns the region for a gid, or null if the tileset has no such tile */
+    public TextureRegion region(int gid) {
+        return gid > 0 && gid < regions.length ? regions[gid] : null;
+    }
+
+    /** Returns true if the tile has all of the given flags */
+    public boolean is(int gid, int flag) {
+        return gid > 0 && gid < flags.length && (flags[gid] & flag) == flag;
+    }
+}
@@ -0,0 +1,201 @@
+package chroma.headless;
+
+import chroma.controller.BotPlayer;
+import chroma.controller.GameplayController;
+import chroma.controller.InputController;
+import chroma.controller.InputReplay;
+import chroma.controller.InputScript;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.JsonValue;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * LevelRun
+ * --------
+ * Simulates one level on the calling thread for a stretch of game time and
+ * measures what its frames cost.
+ * <p>
+ * Each frame is one {@link GameplayController#advance(float)}. With a
+ * recording, the frames are the recorded ones; with a {@link BotPlayer} or
+ * no input at all, every frame is one simulation step. Whenever the level is
+ * won or lost, or the script runs out, the level is restarted from the same
+ * seed, so the run plays the same stretch over and over.
+ * <p>
+ * Besides what frames cost, the report says whether they got dearer as the
+ * run went on (the first tenth of the frames against the last) and how many
+ * bodies each fresh world started with, which is what a long bot run is
+ * for: leaks and slowdowns that only show after hours of play.
+ * <p>
+ * The level's Box2D world is only touched by this thread. Building a world
+ * is not: it creates GL objects and fills shared caches, so worlds are built
+ * one at a time under {@link #SETUP}. Building is not measured.
+ */
+class LevelRun implements Callable<JsonValue> {
+    /** Held while any run builds its world */
+    static final Object SETUP = new Object();
+    /** Seed for runs without a recording */
+    static final long DEFAULT_SEED = 3152L;
+
+    private final String name;
+    private final GameplayController controller;
+    private final InputScript script;
+    private final long seed;
+    private final float seconds;
+
+    /**
+     * Creates a run.
+     *
+     * @param name       the level's file name
+     * @param controller the level's controller, not yet reset
+     * @param script     the input to play, or null to stand still
+     * @param seed       the seed each play of the level starts from
+     * @param seconds    how much game time to simulate
+     */
+    LevelRun(String name, GameplayController controller, InputScript script, long seed, float seconds) {
+        this.name = name;
+        this.controller = controller;
+        this.script = script;
+        this.seed = seed;
+        this.seconds = seconds;
+    }
+
+    @Override
+    public JsonValue call() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        InputController input;
+        synchronized (SETUP) {
+            // Looks for gamepads the first time, which is not thread-safe
+            input = InputController.getInstance();
+        }
+        boolean[] exited = new boolean[1];
+        controller.setScreenListener((screen, code) -> exited[0] = true);
+        if (script instanceof InputReplay) {
+            InputReplay replay = (InputReplay) script;
+            controller.resize(replay.getWidth(), replay.getHeight());
+        } else {
+            controller.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        }
+        restart(input);
+        int startBodies = controller.getBodyCount();
+        int lastStartBodies = startBodies;
+
+        long[] frameNanos = new long[1024];
+        int frames = 0;
+        long steps = 0;
+        long allocated = 0;
+        long bodies = 0;
+        int peakBodies = 0;
+        int restarts = 0;
+        int wins = 0;
+        int losses = 0;
+        double simulated = 0;
+        while (simulated < seconds) {
+            if (exited[0] || controller.isLevelOver() || (script != null && script.isFinished())) {
+                if (controller.isLevelWon()) {
+                    wins++;
+                } else if (controller.isLevelOver()) {
+                    losses++;
+                }
+                exited[0] = false;
+                restart(input);
+                restarts++;
+                lastStartBodies = controller.getBodyCount();
+            }
+
+            long allocStart = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            controller.advance(controller.getFixedStep());
+            long cost = System.nanoTime() - start;
+            allocated += threads.getThreadAllocatedBytes(thread) - allocStart;
+
+            if (frames == frameNanos.length) {
+                frameNanos = Arrays.copyOf(frameNanos, 2 * frames);
+            }
+            frameNanos[frames++] = cost;
+            steps += controller.getStepCount();
+            simulated += input.getDelta();
+            int count = controller.getBodyCount();
+            bodies += count;
+            peakBodies = Math.max(peakBodies, count);
+        }
+        input.startReplay(null);
+        synchronized (SETUP) {
+            controller.suspend();
+        }
+
+        // Whether frames got dearer over the run, before sorting loses the order
+        int tenth = Math.max(1, frames / 10);
+        double firstTenthMs = mean(frameNanos, 0, tenth) / 1e6;
+        double lastTenthMs = mean(frameNanos, frames - tenth, frames) / 1e6;
+
+        long[] sorted = Arrays.copyOf(frameNanos, frames);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long cost : sorted) {
+            total += cost;
+        }
+        JsonValue result = new JsonValue(JsonValue.ValueType.object);
+        result.addChild("level", new JsonValue(name));
+        result.addChild("input", new JsonValue(script instanceof InputReplay ? "recording"
+            : script instanceof BotPlayer ? "bot" : "idle"));
+        result.addChild("simulatedSeconds", new JsonValue(simulated));
+        result.addChild("ticks", new JsonValue(frames));
+        result.addChild("steps", new JsonValue(steps));
+        result.addChild("restarts", new JsonValue(restarts));
+        result.addChild("wins", new JsonValue(wins));
+        result.addChild("losses", new JsonValue(losses));
+        result.addChild("ticksPerSecond", new JsonValue(frames / (total / 1e9)));
+        result.addChild("meanTickMs", new JsonValue(total / 1e6 / frames));
+        result.addChild("p50TickMs", new JsonValue(percentile(sorted, 0.50) / 1e6));
+        result.addChild("p99TickMs", new JsonValue(percentile(sorted, 0.99) / 1e6));
+        result.addChild("maxTickMs", new JsonValue(sorted[frames - 1] / 1e6));
+        result.addChild("firstTenthMeanMs", new JsonValue(firstTenthMs));
+        result.addChild("lastTenthMeanMs", new JsonValue(lastTenthMs));
+        result.addChild("driftRatio", new JsonValue(lastTenthMs / firstTenthMs));
+        result.addChild("meanBodies", new JsonValue((double) bodies / frames));
+        result.addChild("peakBodies", new JsonValue(peakBodies));
+        result.addChild("startBodies", new JsonValue(startBodies));
+        result.addChild("lastStartBodies", new JsonValue(lastStartBodies));
+        result.addChild("allocBytesPerTick", new JsonValue((double) allocated / frames));
+        result.addChild("allocMBPerSimSecond", new JsonValue(allocated / 1e6 / simulated));
+        if (script instanceof BotPlayer) {
+            BotPlayer bot = (BotPlayer) script;
+            result.addChild("sprays", new JsonValue(bot.getSprayCount()));
+            result.addChild("volleys", new JsonValue(bot.getVolleyCount()));
+            result.addChild("hides", new JsonValue(bot.getHideCount()));
+        }
+        return result;
+    }
+
+    /** Builds the level's world afresh and starts its input from the top */
+    private void restart(InputController input) {
+        synchronized (SETUP) {
+            if (script != null) {
+                script.rewind();
+            }
+            controller.setSeed(seed);
+            input.startReplay(script);
+            controller.reset();
+        }
+    }
+
+    /** Returns the mean of values[from..to) */
+    private static double mean(long[] values, int from, int to) {
+        long total = 0;
+        for (int ii = from; ii < to; ii++) {
+            total += values[ii];
+        }
+        return (double) total / (to - from);
+    }
+
+    /** Returns the value below which the given fraction of the sorted values lie */
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
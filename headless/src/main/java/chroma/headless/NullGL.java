@@ -0,0 +1,47 @@
+package chroma.headless;
+
+import com.badlogic.gdx.graphics.GL20;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * NullGL
+ * ------
+ * A GL20 that draws nothing, so textures, shaders and meshes can be created
+ * without a GPU.
+ * <p>
+ * Every call does nothing and returns zero, except that new objects get a
+ * nonzero handle and shaders report that they compiled and linked. That is
+ * enough for libGDX to build the game's resources; the simulation never
+ * draws them.
+ */
+final class NullGL {
+    private NullGL() { }
+
+    /** Returns a GL20 that does nothing */
+    static GL20 create() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+            (proxy, method, args) -> {
+                String name = method.getName();
+                Class<?> type = method.getReturnType();
+                if (name.startsWith("glGet") && name.endsWith("iv") && args != null
+                    && args[args.length - 1] instanceof IntBuffer) {
+                    int pname = (Integer) args[args.length - 2];
+                    IntBuffer out = (IntBuffer) args[args.length - 1];
+                    boolean ok = pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS;
+                    out.put(out.position(), ok ? 1 : 0);
+                    return null;
+                }
+                if (type == int.class) {
+                    return name.startsWith("glCreate") || name.startsWith("glGen") ? 1 : 0;
+                } else if (type == boolean.class) {
+                    return false;
+                } else if (type == float.class) {
+                    return 0f;
+                } else if (type == String.class) {
+                    return "";
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,39 @@
+package chroma.headless;
+
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+
+/**
+ * SimGraphics
+ * -----------
+ * The headless backend's graphics with a screen size. The game sizes its
+ * cameras and text from the screen, which the backend reports as 0 by 0.
+ */
+final class SimGraphics extends MockGraphics {
+    private final int width;
+    private final int height;
+
+    SimGraphics(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getBackBufferWidth() {
+        return width;
+    }
+
+    @Override
+    public int getBackBufferHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,247 @@
+package chroma.headless;
+
+import chroma.controller.BotPlayer;
+import chroma.controller.GameplayController;
+import chroma.controller.InputReplay;
+import chroma.controller.LevelSelector;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SimulationFarm
+ * --------------
+ * Simulates every level at once without a window and reports what their
+ * frames cost, for catching performance regressions in CI.
+ * <p>
+ * Each level runs on its own worker thread with its own Box2D world (see
+ * {@link LevelRun}), one worker per core unless told otherwise. A level
+ * plays its recording from the recordings folder if there is one, named
+ * after the level file (level_1.rec), and otherwise runs with an idle
+ * player. The report is JSON with one entry per level: ticks per second,
+ * tick times, body counts and allocation rates. Given a baseline report,
+ * each level is compared with it, and the farm exits with status 1 if any
+ * level got slower by more than the tolerance or failed to run.
+ * <p>
+ * With --bot, every level is played by a {@link BotPlayer} instead, which
+ * is meant for soak runs of hours: the report then also shows whether frame
+ * times drifted, what the bot did, and how much heap was left in use at the
+ * end compared with the start.
+ * <p>
+ * Options, all optional: --minutes (simulated per level, default 5),
+ * --recordings (folder, default perf), --out (default perf-report.json),
+ * --baseline (a previous report), --tolerance (default 0.1 for 10%),
+ * --threads (default one per core), --bot, and --attempt (seconds the bot
+ * may spend on one play of a level, default 300). Relative paths are from
+ * the assets folder, where the game runs.
+ */
+public class SimulationFarm extends ApplicationAdapter {
+    /** The screen size levels without a recording are played at */
+    private static final int WIDTH = 1440;
+    private static final int HEIGHT = 810;
+
+    private float minutes = 5;
+    private File recordings = new File("perf");
+    private File out = new File("perf-report.json");
+    private File baseline;
+    private float tolerance = 0.1f;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean bot;
+    private float attempt = 300;
+
+    public static void main(String[] args) {
+        SimulationFarm farm = new SimulationFarm();
+        for (int ii = 0; ii < args.length; ii++) {
+            String option = args[ii];
+            if (option.equals("--bot")) {
+                farm.bot = true;
+                continue;
+            }
+            if (ii + 1 == args.length) {
+                System.err.println("Missing value for " + option);
+                System.exit(2);
+            }
+            String value = args[++ii];
+            switch (option) {
+                case "--minutes":    farm.minutes = Float.parseFloat(value); break;
+                case "--recordings": farm.recordings = new File(value); break;
+                case "--out":        farm.out = new File(value); break;
+                case "--baseline":   farm.baseline = new File(value); break;
+                case "--tolerance":  farm.tolerance = Float.parseFloat(value); break;
+                case "--threads":    farm.threads = Integer.parseInt(value); break;
+                case "--attempt":    farm.attempt = Float.parseFloat(value); break;
+                default:
+                    System.err.println("Unknown option " + option);
+                    System.exit(2);
+            }
+        }
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = -1;
+        new HeadlessApplication(farm, config);
+    }
+
+    /** Runs the whole farm and quits with its status */
+    @Override
+    public void create() {
+        Gdx.graphics = new SimGraphics(WIDTH, HEIGHT);
+        Gdx.gl = Gdx.gl20 = NullGL.create();
+
+        int status;
+        try {
+            status = run();
+        } catch (Exception e) {
+            Gdx.app.error("SimulationFarm", "Simulation failed", e);
+            status = 2;
+        }
+        System.exit(status);
+    }
+
+    /** Simulates, reports and compares; returns the exit status */
+    private int run() throws IOException, InterruptedException {
+        AssetDirectory directory = new AssetDirectory("assets.json");
+        directory.loadAssets();
+        directory.finishLoading();
+
+        // Controllers share the asset directory, so they are made here
+        String[] files = new LevelSelector(directory).getLevelFiles();
+        List<LevelRun> runs = new ArrayList<>();
+        for (int ii = 0; ii < files.length; ii++) {
+            LevelSelector selector = new LevelSelector(directory);
+            selector.setCurrentLevel(ii + 1);
+            GameplayController controller = new GameplayController(directory, selector);
+            if (bot) {
+                BotPlayer player = new BotPlayer(controller, LevelRun.DEFAULT_SEED, attempt);
+                runs.add(new LevelRun(files[ii], controller, player, LevelRun.DEFAULT_SEED, minutes * 60));
+                continue;
+            }
+            InputReplay replay = loadRecording(files[ii], ii + 1);
+            long seed = replay != null ? replay.getSeed() : LevelRun.DEFAULT_SEED;
+            runs.add(new LevelRun(files[ii], controller, replay, seed, minutes * 60));
+        }
+
+        Gdx.app.log("SimulationFarm", "Simulating " + runs.size() + " levels for "
+            + minutes + " minutes each on " + threads + " threads" + (bot ? " with the bot" : ""));
+        long heapStart = usedHeap();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<JsonValue>> pending = workers.invokeAll(runs);
+        workers.shutdown();
+        long heapEnd = usedHeap();
+
+        JsonValue levels = new JsonValue(JsonValue.ValueType.array);
+        int failures = 0;
+        for (int ii = 0; ii < pending.size(); ii++) {
+            try {
+                levels.addChild(pending.get(ii).get());
+            } catch (ExecutionException e) {
+                Gdx.app.error("SimulationFarm", files[ii] + " failed", e.getCause());
+                JsonValue failed = new JsonValue(JsonValue.ValueType.object);
+                failed.addChild("level", new JsonValue(files[ii]));
+                failed.addChild("error", new JsonValue(String.valueOf(e.getCause())));
+                levels.addChild(failed);
+                failures++;
+            }
+        }
+
+        JsonValue report = new JsonValue(JsonValue.ValueType.object);
+        report.addChild("simulatedMinutes", new JsonValue(minutes));
+        report.addChild("threads", new JsonValue(threads));
+        report.addChild("failures", new JsonValue(failures));
+        report.addChild("bot", new JsonValue(bot));
+        report.addChild("heapStartMB", new JsonValue(heapStart / 1e6));
+        report.addChild("heapEndMB", new JsonValue(heapEnd / 1e6));
+        report.addChild("levels", levels);
+        int regressions = 0;
+        if (baseline != null) {
+            regressions = compare(levels, new JsonReader().parse(Gdx.files.absolute(baseline.getAbsolutePath())));
+            report.addChild("baseline", new JsonValue(baseline.getPath()));
+            report.addChild("regressions", new JsonValue(regressions));
+        }
+        Files.write(out.toPath(), report.prettyPrint(JsonWriter.OutputType.json, 0)
+            .getBytes(StandardCharsets.UTF_8));
+        Gdx.app.log("SimulationFarm", "Wrote " + out + (baseline != null ? ", " + regressions + " regressions" : ""));
+        return regressions > 0 || failures > 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the heap in use after a collection. The runs' worlds are
+     * suspended by then, so anything that stays is held past its level.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Returns the level's recording, or null if it has none */
+    private InputReplay loadRecording(String file, int level) throws IOException {
+        File recording = new File(recordings, file + ".rec");
+        if (!recording.isFile()) {
+            return null;
+        }
+        InputReplay replay = InputReplay.load(recording);
+        if (replay.getTickCount() == 0) {
+            Gdx.app.error("SimulationFarm", recording + " is empty; not using it");
+            return null;
+        }
+        if (replay.getLevel() != level) {
+            Gdx.app.error("SimulationFarm", recording + " was recorded in level "
+                + replay.getLevel() + ", not " + level + "; not using it");
+            return null;
+        }
+        return replay;
+    }
+
+    /**
+     * Adds each level's baseline figures to its entry and flags it if its
+     * ticks per second fell, or its 99th percentile tick time rose, by more
+     * than the tolerance.
+     *
+     * @return the number of levels flagged
+     */
+    private int compare(JsonValue levels, JsonValue base) {
+        int regressions = 0;
+        for (JsonValue level : levels) {
+            JsonValue old = null;
+            for (JsonValue entry : base.get("levels")) {
+                if (entry.getString("level").equals(level.getString("level"))) {
+                    old = entry;
+                }
+            }
+            if (old == null || !old.has("ticksPerSecond") || !level.has("ticksPerSecond")) {
+                continue;
+            }
+            double speed = level.getDouble("ticksPerSecond") / old.getDouble("ticksPerSecond");
+            double p99 = level.getDouble("p99TickMs") / old.getDouble("p99TickMs");
+            boolean regressed = speed < 1 - tolerance || p99 > 1 + tolerance;
+            JsonValue comparison = new JsonValue(JsonValue.ValueType.object);
+            comparison.addChild("ticksPerSecond", new JsonValue(old.getDouble("ticksPerSecond")));
+            comparison.addChild("p99TickMs", new JsonValue(old.getDouble("p99TickMs")));
+            comparison.addChild("allocBytesPerTick", new JsonValue(old.getDouble("allocBytesPerTick")));
+            comparison.addChild("speedRatio", new JsonValue(speed));
+            comparison.addChild("p99Ratio", new JsonValue(p99));
+            comparison.addChild("regressed", new JsonValue(regressed));
+            level.addChild("baseline", comparison);
+            if (regressed) {
+                regressions++;
+                Gdx.app.log("SimulationFarm", String.format("%s regressed: %.0f%% ticks/s, %.0f%% p99",
+                    level.getString("level"), 100 * speed, 100 * p99));
+            }
+        }
+        return regressions;
+    }
+}
@@ -4,9 +4,19 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 
 import chroma.ChromaRoot;
+import chroma.controller.InputReplay;
+import java.io.File;
+import java.io.IOException;
 
 
-/** Launches the desktop (LWJGL3) application. */
+/**
+ * Launches the desktop (LWJGL3) application.
+ * <p>
+ * Two system properties help with performance runs. -Dchroma.record=FILE
+ * records the input of the first level played into FILE, and
+ * -Dchroma.replay=FILE plays such a recording back as fast as the machine
+ * allows, logs its frame costs and quits.
+ */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
@@ -14,9 +24,30 @@ public class Lwjgl3Launcher {
     }
 
     private static Lwjgl3Application createApplication() {
+        ChromaRoot root = new ChromaRoot();
+        Lwjgl3ApplicationConfiguration configuration = getDefaultConfiguration();
 
-        return new Lwjgl3Application(new ChromaRoot(), getDefaultConfiguration());
-
+        String record = System.getProperty("chroma.record");
+        if (record != null) {
+            root.setRecordFile(new File(record));
+        }
+        String replayFile = System.getProperty("chroma.replay");
+        if (replayFile != null) {
+            InputReplay replay;
+            try {
+                replay = InputReplay.load(new File(replayFile));
+            } catch (IOException e) {
+                System.err.println("Could not load " + replayFile + ": " + e.getMessage());
+                return null;
+            }
+            root.setReplay(replay);
+            // Same screen as the recording, and no frame limit
+            configuration.setWindowedMode(replay.getWidth(), replay.getHeight());
+            configuration.setResizable(false);
+            configuration.useVsync(false);
+            configuration.setForegroundFPS(0);
+        }
+        return new Lwjgl3Application(root, configuration);
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {